@@ -0,0 +1,66 @@
+#!/usr/bin/env python3
+"""Compare two JMH JSON result files and flag regressions.
+
+Usage: src/jmh/compare-results.py baseline.json current.json [--threshold 10]
+
+A benchmark regresses when it is worse than the baseline by more than the threshold
+percentage and by more than the combined score errors, so noise alone doesn't fail a run.
+Exits with status 1 if any benchmark regressed.
+"""
+import argparse
+import json
+import sys
+
+
+def load(path):
+    with open(path) as f:
+        results = {}
+        for run in json.load(f):
+            params = ",".join(f"{k}={v}" for k, v in sorted((run.get("params") or {}).items()))
+            name = run["benchmark"].rsplit(".", 2)[-2:]
+            key = ".".join(name) + (f" [{params}]" if params else "")
+            metric = run["primaryMetric"]
+            results[key] = (run["mode"], metric["score"], metric.get("scoreError") or 0.0, metric["scoreUnit"])
+        return results
+
+
+def main():
+    parser = argparse.ArgumentParser(description=__doc__, formatter_class=argparse.RawDescriptionHelpFormatter)
+    parser.add_argument("baseline")
+    parser.add_argument("current")
+    parser.add_argument("--threshold", type=float, default=10.0, help="allowed slowdown in percent")
+    args = parser.parse_args()
+
+    baseline = load(args.baseline)
+    current = load(args.current)
+    regressions = 0
+
+    print(f"{'benchmark':<70} {'baseline':>14} {'current':>14} {'change':>9}")
+    for key in sorted(current):
+        mode, score, error, unit = current[key]
+        if key not in baseline:
+            print(f"{key:<70} {'-':>14} {score:>14.3f} {'new':>9}")
+            continue
+        _, base_score, base_error, _ = baseline[key]
+        # Throughput modes are better when higher, time modes when lower
+        higher_is_better = mode in ("thrpt",)
+        change = (score - base_score) / base_score * 100 if base_score else 0.0
+        worse_by = -change if higher_is_better else change
+        beyond_noise = abs(score - base_score) > error + base_error
+        flag = ""
+        if worse_by > args.threshold and beyond_noise:
+            flag = "  REGRESSION"
+            regressions += 1
+        print(f"{key:<70} {base_score:>14.3f} {score:>14.3f} {change:>+8.1f}%{flag}  {unit}")
+
+    for key in sorted(set(baseline) - set(current)):
+        print(f"{key:<70} missing from current results")
+
+    if regressions:
+        print(f"\n{regressions} benchmark(s) regressed by more than {args.threshold}%")
+        return 1
+    return 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
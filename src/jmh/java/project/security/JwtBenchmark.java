@@ -0,0 +1,65 @@
+package project.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.concurrent.TimeUnit;
+
+// Token issue and verification as seen by AuthenticationService and JwtAuthenticationFilter
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+    private JwtService jwtService;
+    private JwtService uncachedJwtService;
+    private UserDetails user;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecretKey("benchmark-secret-key-that-is-at-least-256-bits-long!!");
+        properties.setExpiration(86_400_000);
+        jwtService = new JwtService(properties);
+
+        // A zero-size cache forces a full signature check on every call
+        JwtProperties uncached = new JwtProperties();
+        uncached.setSecretKey(properties.getSecretKey());
+        uncached.setExpiration(properties.getExpiration());
+        uncached.setVerifiedTokenCacheSize(0);
+        uncachedJwtService = new JwtService(uncached);
+
+        user = User.withUsername("bench@example.com").password("unused").build();
+        token = jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user);
+    }
+
+    // Repeat requests with the same token, the common case in the filter
+    @Benchmark
+    public String verifyCached() {
+        return jwtService.verifyAndExtractUsername(token);
+    }
+
+    @Benchmark
+    public String verifyUncached() {
+        return uncachedJwtService.verifyAndExtractUsername(token);
+    }
+}
@@ -0,0 +1,101 @@
+package project.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import project.model.Transaction;
+import project.model.TransactionCategory;
+import project.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Aggregation cost of the analytics endpoints over histories of 1k, 100k and 1M rows:
+// the columnar snapshot behind both analysis services, the fused collector over loaded entities,
+// and the original four-pass stream code as a baseline.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class AnalyticsBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int rows;
+
+    private List<Transaction> history;
+    private List<Object[]> columnRows;
+    private TransactionColumns columns;
+    private long monthStart;
+    private long monthEnd;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        history = SyntheticHistory.transactions(rows, 42);
+        columnRows = SyntheticHistory.columnRows(history);
+        columns = TransactionColumns.of(columnRows.stream());
+        YearMonth month = YearMonth.from(SyntheticHistory.END);
+        monthStart = month.atDay(1).toEpochDay();
+        monthEnd = month.plusMonths(1).atDay(1).toEpochDay();
+    }
+
+    @Benchmark
+    public TransactionColumns buildSnapshot() {
+        return TransactionColumns.of(columnRows.stream());
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> snapshotMonthlyAnalysis() {
+        return columns.aggregate(monthStart, monthEnd, true).expenseMerchants();
+    }
+
+    @Benchmark
+    public Map<TransactionCategory, BigDecimal> snapshotAllTimeSummary() {
+        return columns.aggregate(Long.MIN_VALUE, Long.MAX_VALUE, false).expenseCategories();
+    }
+
+    @Benchmark
+    public TransactionTotals fusedCollector() {
+        return history.stream().collect(TransactionTotals.collector());
+    }
+
+    @Benchmark
+    public TransactionTotals fusedCollectorParallel() {
+        return history.parallelStream().collect(TransactionTotals.collector());
+    }
+
+    // What getMonthlyAnalysis did before the fused collector: four passes with BigDecimal reductions
+    @Benchmark
+    public Object[] multiPassBaseline() {
+        BigDecimal income = history.stream()
+                .filter(t -> t.getType() == TransactionType.INCOME)
+                .map(Transaction::getAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal expenses = history.stream()
+                .filter(t -> t.getType() == TransactionType.EXPENSE)
+                .map(Transaction::getAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        Map<TransactionCategory, BigDecimal> byCategory = history.stream()
+                .filter(t -> t.getType() == TransactionType.EXPENSE && t.getCategory() != null)
+                .collect(Collectors.groupingBy(Transaction::getCategory,
+                        Collectors.reducing(BigDecimal.ZERO, Transaction::getAmount, BigDecimal::add)));
+        Map<String, BigDecimal> byMerchant = history.stream()
+                .filter(t -> t.getType() == TransactionType.EXPENSE && t.getMerchant() != null)
+                .collect(Collectors.groupingBy(Transaction::getMerchant,
+                        Collectors.reducing(BigDecimal.ZERO, Transaction::getAmount, BigDecimal::add)));
+        return new Object[]{income, expenses, byCategory, byMerchant};
+    }
+}
@@ -0,0 +1,74 @@
+package project.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import project.model.Account;
+import project.model.User;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Per-row CPU cost of turning a Plaid sync page into Transaction rows and rollup deltas,
+// i.e. the in-memory part of TransactionSyncService.processTransactions
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlaidMappingBenchmark {
+    private static final int PAGE_SIZE = 500;
+
+    private List<com.plaid.client.model.Transaction> page;
+    private Account account;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        User user = new User();
+        user.setId(1L);
+        account = new Account();
+        account.setId(1L);
+        account.setUser(user);
+        account.setPlaidAccountId("acc-1");
+
+        SplittableRandom random = new SplittableRandom(42);
+        page = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            page.add(new com.plaid.client.model.Transaction()
+                    .transactionId("tx-" + i)
+                    .accountId("acc-1")
+                    .amount(random.nextInt(-50_000, 50_000) / 100.0)
+                    .name("Purchase " + i)
+                    .merchantName(random.nextInt(10) == 0 ? null : "Merchant " + random.nextInt(200))
+                    .date(LocalDate.of(2024, 1, 1).plusDays(random.nextInt(365)))
+                    .pending(random.nextInt(20) == 0));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGE_SIZE)
+    public void mapPage(Blackhole blackhole) {
+        RollupDelta delta = new RollupDelta();
+        for (com.plaid.client.model.Transaction plaidTx : page) {
+            project.model.Transaction row = TransactionSyncService.createTransactionFromPlaid(plaidTx, account);
+            delta.add(account.getUser().getId(), account.getId(), row.getTransactionDate(),
+                    row.getType(), row.getCategory(), row.getAmount());
+            blackhole.consume(row);
+        }
+        blackhole.consume(delta);
+    }
+}
@@ -0,0 +1,74 @@
+package project.service;
+
+import project.model.Transaction;
+import project.model.TransactionCategory;
+import project.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Deterministic transaction histories for the benchmarks: three years of activity, roughly one
+// income per ten expenses, a few hundred merchants and some rows without merchant or category
+final class SyntheticHistory {
+    static final LocalDate END = LocalDate.of(2024, 12, 31);
+    static final int DAYS = 3 * 365;
+    private static final int MERCHANTS = 400;
+    private static final TransactionCategory[] EXPENSE_CATEGORIES = {
+            TransactionCategory.HOUSING, TransactionCategory.TRANSPORTATION, TransactionCategory.FOOD,
+            TransactionCategory.UTILITIES, TransactionCategory.HEALTHCARE, TransactionCategory.ENTERTAINMENT,
+            TransactionCategory.SHOPPING, TransactionCategory.EDUCATION, TransactionCategory.OTHER_EXPENSE
+    };
+
+    private SyntheticHistory() {
+    }
+
+    // Sorted by date, like the snapshot query returns them
+    static List<Transaction> transactions(int rows, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        LocalDate start = END.minusDays(DAYS - 1);
+        List<Transaction> transactions = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Transaction t = new Transaction();
+            // Spread rows evenly over the period so they stay in date order
+            LocalDate day = start.plusDays((long) i * DAYS / rows);
+            t.setTransactionDate(day.atTime(random.nextInt(24), random.nextInt(60)));
+            boolean income = random.nextInt(10) == 0;
+            t.setType(income ? TransactionType.INCOME : TransactionType.EXPENSE);
+            t.setAmount(BigDecimal.valueOf(random.nextLong(100, income ? 500_000 : 50_000), 2));
+            if (income) {
+                t.setCategory(TransactionCategory.SALARY);
+            } else {
+                t.setCategory(random.nextInt(20) == 0 ? null
+                        : EXPENSE_CATEGORIES[random.nextInt(EXPENSE_CATEGORIES.length)]);
+                t.setMerchant(random.nextInt(10) == 0 ? null : "Merchant " + skewedMerchant(random));
+            }
+            transactions.add(t);
+        }
+        return transactions;
+    }
+
+    // The snapshot query's row shape: (transactionDate, amount, type, category, merchant)
+    static List<Object[]> columnRows(List<Transaction> transactions) {
+        List<Object[]> rows = new ArrayList<>(transactions.size());
+        for (Transaction t : transactions) {
+            rows.add(new Object[]{t.getTransactionDate(), t.getAmount(), t.getType(), t.getCategory(), t.getMerchant()});
+        }
+        return rows;
+    }
+
+    static List<Transaction> month(List<Transaction> transactions, LocalDateTime start, LocalDateTime end) {
+        return transactions.stream()
+                .filter(t -> !t.getTransactionDate().isBefore(start) && t.getTransactionDate().isBefore(end))
+                .toList();
+    }
+
+    // A few merchants take most of the spend, as in real histories
+    private static int skewedMerchant(SplittableRandom random) {
+        double u = random.nextDouble();
+        return (int) (MERCHANTS * u * u * u);
+    }
+}
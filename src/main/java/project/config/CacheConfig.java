@@ -0,0 +1,35 @@
+package project.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String USER_DETAILS_CACHE = "userDetails";
+
+    @Value("${application.cache.user-details.ttl:5m}")
+    private Duration userDetailsTtl;
+
+    @Value("${application.cache.user-details.max-size:10000}")
+    private long userDetailsMaxSize;
+
+    // Caches are registered up front so actuator binds their hit/miss metrics at startup
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(USER_DETAILS_CACHE, Caffeine.newBuilder()
+                .expireAfterWrite(userDetailsTtl)
+                .maximumSize(userDetailsMaxSize)
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+}
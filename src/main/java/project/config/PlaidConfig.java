@@ -2,9 +2,12 @@ package project.config;
 
 import com.plaid.client.ApiClient;
 import com.plaid.client.request.PlaidApi;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import project.simulator.PlaidSimulator;
 import java.util.HashMap;
 
 @Configuration
@@ -19,12 +22,13 @@ public class PlaidConfig {
     private String environment;
 
     @Bean
-    public PlaidApi plaidApi() {
+    public PlaidApi plaidApi(ObjectProvider<PlaidSimulator> simulator, MeterRegistry meterRegistry) {
         HashMap<String, String> apiKeys = new HashMap<>();
         apiKeys.put("clientId", clientId);
         apiKeys.put("secret", secret);
 
         ApiClient apiClient = new ApiClient(apiKeys);
+        apiClient.getOkBuilder().addInterceptor(new PlaidMetricsInterceptor(meterRegistry));
 
         // Set environment
         switch (environment.toLowerCase()) {
@@ -34,6 +38,10 @@ public class PlaidConfig {
             case "production":
                 apiClient.setPlaidAdapter(ApiClient.Production);
                 break;
+            case "simulated":
+                // In-process stand-in for offline and load testing, see PlaidSimulator
+                apiClient.setPlaidAdapter(simulator.getObject().baseUrl());
+                break;
             default:
                 throw new IllegalStateException("Invalid Plaid environment: " + environment);
         }
@@ -0,0 +1,53 @@
+package project.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+
+// Times every call the PlaidApi client makes, tagged by endpoint path and outcome
+class PlaidMetricsInterceptor implements Interceptor {
+    private final MeterRegistry meterRegistry;
+
+    PlaidMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        // Plaid endpoints carry no ids in the path, so this stays a small, fixed set of values
+        String endpoint = request.url().encodedPath();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            Response response = chain.proceed(request);
+            sample.stop(timer(endpoint, String.valueOf(response.code()), outcome(response.code())));
+            return response;
+        } catch (IOException e) {
+            sample.stop(timer(endpoint, "none", "io_error"));
+            throw e;
+        }
+    }
+
+    private Timer timer(String endpoint, String status, String outcome) {
+        return Timer.builder("plaid.api.requests")
+                .description("Calls to the Plaid API")
+                .tag("endpoint", endpoint)
+                .tag("status", status)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static String outcome(int code) {
+        if (code < 300) {
+            return "success";
+        }
+        if (code == 429) {
+            return "rate_limited";
+        }
+        return code < 500 ? "client_error" : "server_error";
+    }
+}
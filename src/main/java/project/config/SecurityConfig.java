@@ -1,6 +1,10 @@
 package project.config;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationProvider;
@@ -9,6 +13,7 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
 import project.security.JwtAuthenticationFilter;
 
 // project/config/SecurityConfig.java
@@ -19,12 +24,27 @@ public class SecurityConfig {
     private final   JwtAuthenticationFilter jwtAuthFilter;
     private final AuthenticationProvider authenticationProvider;
 
+    @Value("${server.port:8080}")
+    private int serverPort;
+
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/auth/**").permitAll()
+                        // Plaid (or the simulator) calls this without a user token; PlaidWebhookController
+                        // checks the Plaid-Verification signature instead
+                        .requestMatchers("/api/plaid/webhook").permitAll()
+                        .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+                        // The scraper sends no token, so metrics are only open on a separate management port
+                        .requestMatchers(new AndRequestMatcher(
+                                EndpointRequest.to("prometheus"), this::onManagementPort)).permitAll()
+                        // Cross-tenant merchant statistics can identify individual users
+                        .requestMatchers("/api/analysis/sketches/platform").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session
@@ -35,4 +55,8 @@ public class SecurityConfig {
 
         return http.build();
     }
+
+    private boolean onManagementPort(HttpServletRequest request) {
+        return managementPort > 0 && managementPort != serverPort && request.getLocalPort() == managementPort;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+// Sizing for the merchant and spend-distribution sketches
+@Component
+@ConfigurationProperties(prefix = "application.sketches")
+@Data
+public class SketchProperties {
+    // Merchants tracked by each top-K sketch
+    private int topKCapacity = 256;
+    // HyperLogLog registers = 2^precision bytes
+    private int hllPrecision = 12;
+    // t-digest compression; higher is more accurate in the tails and uses more memory
+    private double digestCompression = 100;
+    // Heap budget for per-user sketches, weighed by their estimated size
+    private long userCacheMaxBytes = 128L * 1024 * 1024;
+}
@@ -0,0 +1,20 @@
+package project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Limits for the scheduled Plaid sync sweep
+@Component
+@ConfigurationProperties(prefix = "application.sync")
+@Data
+public class SyncProperties {
+    // Items syncing at the same time across all institutions
+    private int maxConcurrency = 64;
+    // Items syncing at the same time against a single institution
+    private int perInstitutionConcurrency = 8;
+    // Items synced more recently than this (e.g. by a webhook) are skipped by the sweep
+    private Duration minInterval = Duration.ofMinutes(15);
+}
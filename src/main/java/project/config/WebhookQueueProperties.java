@@ -0,0 +1,26 @@
+package project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Settings for draining the webhook_events queue
+@Component
+@ConfigurationProperties(prefix = "application.webhooks")
+@Data
+public class WebhookQueueProperties {
+    // Rows claimed per poll, processed concurrently
+    private int batchSize = 16;
+    private int maxAttempts = 8;
+    // Retry delay doubles from initialBackoff up to maxBackoff
+    private Duration initialBackoff = Duration.ofSeconds(5);
+    private Duration maxBackoff = Duration.ofMinutes(30);
+    // How long a claimed row stays invisible to other workers. Overlapping syncs of one item are
+    // serialized by its row lock, so this only needs to cover a typical event, not the slowest sync.
+    private Duration lease = Duration.ofMinutes(5);
+    // DONE and FAILED rows older than this are deleted every purgeInterval
+    private Duration retention = Duration.ofDays(7);
+    private Duration purgeInterval = Duration.ofHours(1);
+}
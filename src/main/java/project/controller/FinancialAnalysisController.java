@@ -5,8 +5,12 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import project.dto.MonthlyAnalysis;
+import project.dto.SpendSketchSummary;
 import project.dto.SpendingTrends;
+import project.dto.TrendGranularity;
+import project.exception.InvalidTransactionDataException;
 import project.service.FinancialAnalysisService;
+import project.service.SpendSketchService;
 import java.time.YearMonth;
 
 @RestController
@@ -14,22 +18,46 @@ import java.time.YearMonth;
 @RequiredArgsConstructor
 public class FinancialAnalysisController {
     private final  FinancialAnalysisService analysisService;
+    private final SpendSketchService sketchService;
 
     @GetMapping("/monthly/{yearMonth}")
     public ResponseEntity<MonthlyAnalysis> getMonthlyAnalysis(
             Authentication authentication,
             @PathVariable @DateTimeFormat(pattern = "yyyy-MM") YearMonth yearMonth){
-        MonthlyAnalysis analysis = analysisService.getMonthlyAnalysis(yearMonth);
+        MonthlyAnalysis analysis = analysisService.getMonthlyAnalysis(authentication.getName(), yearMonth);
         return ResponseEntity.ok(analysis);
     }
 
+    // Spending over the last N months, bucketed monthly (default) or weekly
     @GetMapping("/trends")
     public ResponseEntity<SpendingTrends> getSpendingTrends(
-            Authentication authentication){
-        SpendingTrends trends = analysisService.getSpendingTrends();
+            Authentication authentication,
+            @RequestParam(defaultValue = "6") int months,
+            @RequestParam(defaultValue = "monthly") String granularity){
+        TrendGranularity trendGranularity;
+        try {
+            trendGranularity = TrendGranularity.valueOf(granularity.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidTransactionDataException("Unsupported granularity: " + granularity);
+        }
+
+        SpendingTrends trends = analysisService.getSpendingTrends(authentication.getName(), months, trendGranularity);
         return ResponseEntity.ok(trends);
     }
 
-}
+    // Approximate top merchants, distinct merchants and per-category amount percentiles for the user
+    @GetMapping("/sketches")
+    public ResponseEntity<SpendSketchSummary> getSpendSketches(
+            Authentication authentication,
+            @RequestParam(defaultValue = "10") int top){
+        return ResponseEntity.ok(sketchService.getUserSummary(authentication.getName(), top));
+    }
 
+    // The same statistics across all users, refreshed periodically. Admins only, see SecurityConfig
+    @GetMapping("/sketches/platform")
+    public ResponseEntity<SpendSketchSummary> getPlatformSpendSketches(
+            @RequestParam(defaultValue = "10") int top){
+        return ResponseEntity.ok(sketchService.getPlatformSummary(top));
+    }
 
+}
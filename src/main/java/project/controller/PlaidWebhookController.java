@@ -1,65 +1,71 @@
 package project.controller;
 
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import project.model.PlaidItem;
-import project.repository.PlaidItemRepository;
-import project.service.TransactionSyncService;
+import project.service.PlaidWebhookVerifier;
+import project.service.WebhookQueueWorker;
 
 @RestController
 @RequestMapping("/api/plaid/webhook")
 @RequiredArgsConstructor
 @Slf4j
 public class PlaidWebhookController {
-    private final PlaidItemRepository plaidItemRepository;
-    private final TransactionSyncService transactionSyncService;
+    private final WebhookQueueWorker webhookQueueWorker;
+    private final PlaidWebhookVerifier webhookVerifier;
+    private final ObjectMapper objectMapper;
 
+    // Only persists the webhook; WebhookQueueWorker does the Plaid round trip off the request thread.
+    // The route needs no user token, so nothing is queued until Plaid's signature over the raw body checks out.
     @PostMapping
-    public ResponseEntity<?> handleWebhook(@RequestBody WebhookPayload payload) {
-        log.info("Received webhook: {}", payload.getWebhookType());
+    public ResponseEntity<?> handleWebhook(
+            @RequestBody String body,
+            @RequestHeader(value = "Plaid-Verification", required = false) String verification) {
+        if (!webhookVerifier.isAuthentic(body, verification)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
 
+        WebhookPayload payload;
         try {
-            switch (payload.getWebhookType()) {
-                case "TRANSACTIONS":
-                    handleTransactionsWebhook(payload);
-                    break;
-                case "ITEM":
-                    handleItemWebhook(payload);
-                    break;
-                default:
-                    log.info("Unhandled webhook type: {}", payload.getWebhookType());
-            }
-            return ResponseEntity.ok().build();
-        } catch (Exception e) {
-            log.error("Error processing webhook: {}", e.getMessage());
-            return ResponseEntity.internalServerError().build();
+            payload = objectMapper.readValue(body, WebhookPayload.class);
+        } catch (JsonProcessingException e) {
+            return ResponseEntity.badRequest().build();
         }
-    }
-
-    private void handleTransactionsWebhook(WebhookPayload payload) {
-        if ("DEFAULT_UPDATE".equals(payload.getWebhookCode())) {
-            PlaidItem item = plaidItemRepository.findByItemId(payload.getItemId())
-                    .orElseThrow(() -> new RuntimeException("Item not found"));
+        log.info("Received webhook: {}", payload.getWebhookType());
 
-            transactionSyncService.syncTransactionsForItem(item);
+        if (payload.getWebhookType() == null) {
+            return ResponseEntity.badRequest().build();
         }
-    }
 
-    private void handleItemWebhook(WebhookPayload payload) {
-        // Handle item status updates
-        log.info("Item webhook received: {}", payload.getWebhookCode());
+        try {
+            webhookQueueWorker.enqueue(payload.getWebhookType(), payload.getWebhookCode(), payload.getItemId());
+            return ResponseEntity.accepted().build();
+        } catch (Exception e) {
+            log.error("Error queueing webhook: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
     }
 }
 
+// Plaid sends snake_case fields
 @Data
 class WebhookPayload {
+    @JsonAlias("webhook_type")
     private String webhookType;
+    @JsonAlias("webhook_code")
     private String webhookCode;
+    @JsonAlias("item_id")
     private String itemId;
-    private String error;
+    // An error object, or null
+    private JsonNode error;
+    @JsonAlias("new_transactions")
     private String newTransactions;
 
 }
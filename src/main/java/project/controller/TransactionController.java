@@ -1,16 +1,32 @@
 package project.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.security.core.userdetails.UserDetails;
+import project.dto.BatchTransactionRequest;
+import project.dto.BatchTransactionResult;
+import project.dto.ExportFormat;
 import project.dto.FinancialSummary;
 import project.dto.TransactionDTO;
+import project.dto.TransactionPage;
+import project.dto.TransactionView;
 import project.model.Transaction;
+import project.model.TransactionCategory;
+import project.model.TransactionType;
+import project.exception.InvalidTransactionDataException;
+import project.service.TransactionBatchService;
+import project.service.TransactionExportService;
 import project.service.TransactionService;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.time.LocalDateTime;
 
 
 // project/controller/TransactionController.java
@@ -19,6 +35,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class TransactionController {
     private final TransactionService transactionService;
+    private final TransactionExportService exportService;
+    private final TransactionBatchService batchService;
 
     @GetMapping("/summary")
     public ResponseEntity<FinancialSummary> getFinancialSummary(Authentication authentication) {
@@ -28,7 +46,7 @@ public class TransactionController {
     }
 
     @PostMapping
-    public ResponseEntity<Transaction> createTransaction(
+    public ResponseEntity<TransactionView> createTransaction(
             Authentication authentication,
             @RequestBody TransactionDTO dto) {
 
@@ -42,13 +60,34 @@ public class TransactionController {
         }
 
         Transaction transaction = transactionService.createTransaction(userEmail, dto);
-        return ResponseEntity.ok(transaction);
+        return ResponseEntity.ok(TransactionView.from(transaction));
     }
 
-    //Add method to get user's transactions
+    // Bulk import. Errors are reported per item by request index; in ALL_OR_NOTHING mode
+    // any error rejects the batch with 422 and nothing is written
+    @PostMapping("/batch")
+    public ResponseEntity<BatchTransactionResult> createTransactions(
+            Authentication authentication,
+            @RequestBody BatchTransactionRequest request) {
+
+        String userEmail = ((UserDetails) authentication.getPrincipal()).getUsername();
+
+        BatchTransactionResult result = batchService.createTransactions(userEmail, request);
+        HttpStatus status = result.isCommitted() ? HttpStatus.OK : HttpStatus.UNPROCESSABLE_ENTITY;
+        return ResponseEntity.status(status).body(result);
+    }
+
+    // Get user's transactions, newest first, one page per call.
+    // Pass the returned nextCursor to fetch the next page; filters are optional.
     @GetMapping
-    public ResponseEntity<List<Transaction>> getUserTransactions(
-            Authentication authentication) {
+    public ResponseEntity<TransactionPage> getUserTransactions(
+            Authentication authentication,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) TransactionType type,
+            @RequestParam(required = false) TransactionCategory category) {
 
         String userEmail;
         Object principal = authentication.getPrincipal();
@@ -59,12 +98,41 @@ public class TransactionController {
             userEmail = principal.toString();
         }
 
-        List<Transaction> transactions = transactionService.getUserTransactions(userEmail);
-        return ResponseEntity.ok(transactions);
+        TransactionPage page = transactionService.getUserTransactionsFiltered(
+                userEmail, startDate, endDate, type, category, cursor, limit);
+        return ResponseEntity.ok(page);
     }
+    // Full-history export, streamed as NDJSON (default) or CSV
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            Authentication authentication,
+            @RequestParam(defaultValue = "ndjson") String format,
+            WebRequest request) {
+
+        String userEmail = ((UserDetails) authentication.getPrincipal()).getUsername();
+
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidTransactionDataException("Unsupported export format: " + format);
+        }
+
+        MediaType contentType = exportFormat == ExportFormat.CSV
+                ? MediaType.parseMediaType("text/csv")
+                : MediaType.parseMediaType("application/x-ndjson");
+        String filename = "transactions." + (exportFormat == ExportFormat.CSV ? "csv" : "ndjson");
+
+        StreamingResponseBody body = exportService.prepareExport(userEmail, exportFormat, request);
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
     // Add method to get transaction by ID
     @GetMapping("/{id}")
-    public ResponseEntity<Transaction> getTransaction(
+    public ResponseEntity<TransactionView> getTransaction(
             Authentication authentication,
             @PathVariable Long id) {
 
@@ -78,13 +146,15 @@ public class TransactionController {
         }
 
         Transaction transaction = transactionService.getTransactionById(userEmail, id);
-        return ResponseEntity.ok(transaction);
+        return ResponseEntity.ok(TransactionView.from(transaction));
     }
 
     // Add method for pending transactions
     @GetMapping("/pending")
-    public ResponseEntity<List<Transaction>> getPendingTransactions(
-            Authentication authentication) {
+    public ResponseEntity<TransactionPage> getPendingTransactions(
+            Authentication authentication,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
 
         String userEmail;
         Object principal = authentication.getPrincipal();
@@ -95,7 +165,7 @@ public class TransactionController {
             userEmail = principal.toString();
         }
 
-        List<Transaction> pendingTransactions = transactionService.getPendingTransactions(userEmail);
+        TransactionPage pendingTransactions = transactionService.getPendingTransactions(userEmail, cursor, limit);
         return ResponseEntity.ok(pendingTransactions);
     }
 
@@ -0,0 +1,16 @@
+package project.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+// An account's owner and current balance, read under a row lock by bulk writers
+@Data
+@AllArgsConstructor
+public class AccountBalanceRow {
+    private Long accountId;
+    private Long userId;
+    private String userEmail;
+    private BigDecimal balance;
+}
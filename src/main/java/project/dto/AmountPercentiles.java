@@ -0,0 +1,6 @@
+package project.dto;
+
+import java.math.BigDecimal;
+
+public record AmountPercentiles(long count, BigDecimal p50, BigDecimal p90, BigDecimal p99) {
+}
@@ -0,0 +1,5 @@
+package project.dto;
+
+// A rejected row, identified by its position in the request
+public record BatchItemError(int index, String message) {
+}
@@ -0,0 +1,7 @@
+package project.dto;
+
+// How a bulk import handles rows that fail validation or would overdraw an account
+public enum BatchMode {
+    ALL_OR_NOTHING,  // any failing row rejects the whole batch
+    BEST_EFFORT      // failing rows are skipped, the rest are written
+}
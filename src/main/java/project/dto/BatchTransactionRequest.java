@@ -0,0 +1,11 @@
+package project.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchTransactionRequest {
+    private BatchMode mode = BatchMode.ALL_OR_NOTHING;
+    private List<TransactionDTO> transactions;
+}
@@ -0,0 +1,16 @@
+package project.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BatchTransactionResult {
+    private BatchMode mode;
+    private boolean committed;
+    private int created;   // request items written; a transfer counts once
+    private int rejected;
+    private List<BatchItemError> errors;
+}
@@ -0,0 +1,6 @@
+package project.dto;
+
+public enum ExportFormat {
+    NDJSON,
+    CSV
+}
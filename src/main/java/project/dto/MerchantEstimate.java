@@ -0,0 +1,7 @@
+package project.dto;
+
+import java.math.BigDecimal;
+
+// Approximate spend at a merchant; the true total lies in [estimatedTotal - maxError, estimatedTotal]
+public record MerchantEstimate(String merchant, BigDecimal estimatedTotal, BigDecimal maxError) {
+}
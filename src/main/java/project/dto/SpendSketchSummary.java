@@ -0,0 +1,18 @@
+package project.dto;
+
+import lombok.Data;
+import project.model.TransactionCategory;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+// Expense statistics answered from fixed-size sketches, so they are approximate
+@Data
+public class SpendSketchSummary {
+    private List<MerchantEstimate> topMerchants;
+    private long distinctMerchants;
+    private Map<TransactionCategory, AmountPercentiles> categoryPercentiles;
+    private long expenseCount;
+    private LocalDateTime builtAt;
+}
@@ -4,11 +4,14 @@ import lombok.Data;
 import project.model.TransactionCategory;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.Map;
 
 @Data
 public class SpendingTrends {
+    private TrendGranularity granularity;
+    private Map<LocalDate, BigDecimal> periodSpending;  // keyed by the first day of each period
     private Map<YearMonth, BigDecimal> monthlySpending;
     private Map<TransactionCategory, BigDecimal> categoryTrends;
     private Map<String, Double> percentageChanges;
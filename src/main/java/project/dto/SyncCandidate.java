@@ -0,0 +1,16 @@
+package project.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// The few PlaidItem columns the sync sweep needs to schedule an item
+@Data
+@AllArgsConstructor
+public class SyncCandidate {
+    private Long id;
+    private String institutionId;
+    private LocalDateTime lastSync;
+    private boolean hasCursor;
+}
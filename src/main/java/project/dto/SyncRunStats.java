@@ -0,0 +1,15 @@
+package project.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class SyncRunStats {
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private int itemsSynced;
+    private int itemsFailed;
+    private int itemsSkipped;
+    private long wallTimeMillis;
+}
@@ -0,0 +1,14 @@
+package project.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+// One page of a keyset-paginated listing; pass nextCursor back to get the following page
+@Data
+@AllArgsConstructor
+public class TransactionPage {
+    private List<TransactionView> items;
+    private String nextCursor;  // null on the last page
+}
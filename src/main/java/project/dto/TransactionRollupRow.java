@@ -0,0 +1,22 @@
+package project.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import project.model.TransactionCategory;
+import project.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// The stored values of a transaction that feed its rollup row, read without loading the entity
+@Data
+@AllArgsConstructor
+public class TransactionRollupRow {
+    private String plaidTransactionId;
+    private Long userId;
+    private Long accountId;
+    private BigDecimal amount;
+    private LocalDateTime transactionDate;
+    private TransactionType type;
+    private TransactionCategory category;
+}
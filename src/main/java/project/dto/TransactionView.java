@@ -0,0 +1,43 @@
+package project.dto;
+
+import project.model.Transaction;
+import project.model.TransactionCategory;
+import project.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Read-only API shape for transactions: the transaction's own columns plus its account id, never the account graph
+public record TransactionView(
+        Long id,
+        Long accountId,
+        BigDecimal amount,
+        String description,
+        String merchant,
+        TransactionType type,
+        TransactionCategory category,
+        String subCategory,
+        LocalDateTime transactionDate,
+        String plaidTransactionId,
+        Boolean pending,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {
+    // Reading the id of a lazy account proxy does not initialize it
+    public static TransactionView from(Transaction t) {
+        return new TransactionView(
+                t.getId(),
+                t.getAccount() != null ? t.getAccount().getId() : null,
+                t.getAmount(),
+                t.getDescription(),
+                t.getMerchant(),
+                t.getType(),
+                t.getCategory(),
+                t.getSubCategory(),
+                t.getTransactionDate(),
+                t.getPlaidTransactionId(),
+                t.getPending(),
+                t.getCreatedAt(),
+                t.getUpdatedAt());
+    }
+}
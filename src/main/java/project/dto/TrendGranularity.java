@@ -0,0 +1,17 @@
+package project.dto;
+
+// Bucket size for spending trends; the unit is passed to PostgreSQL's date_trunc
+public enum TrendGranularity {
+    MONTHLY("month"),
+    WEEKLY("week");
+
+    private final String dateTruncUnit;
+
+    TrendGranularity(String dateTruncUnit) {
+        this.dateTruncUnit = dateTruncUnit;
+    }
+
+    public String getDateTruncUnit() {
+        return dateTruncUnit;
+    }
+}
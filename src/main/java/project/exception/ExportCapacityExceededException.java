@@ -0,0 +1,9 @@
+package project.exception;
+
+// Thrown when every export slot is busy; mapped to 429 so clients retry later
+public class ExportCapacityExceededException extends RuntimeException {
+
+    public ExportCapacityExceededException(String message) {
+        super(message);
+    }
+}
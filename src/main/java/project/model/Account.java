@@ -1,17 +1,21 @@
 package project.model;
 
-import com.fasterxml.jackson.annotation.JsonBackReference;
-
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity // Database table
 @Data // Lombok annotation that auto create getters, setters, toString, etc.
 @Table(name = "accounts") // Names the table in the database
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // second-level cache, see ehcache.xml
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Account {
     // Primary key that auto-increments
@@ -21,10 +25,11 @@ public class Account {
 
     // Many accounts can belong to one user
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false) // Creates a relationhip between User and account tables.
-    @JsonManagedReference
-    @JsonIgnoreProperties({"accounts", "password"})
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User user;
 
     // basic account information
@@ -49,4 +54,9 @@ public class Account {
 
     //Last update timestamp
     private LocalDateTime updatedAt;
+
+    // Optimistic locking for edits through the entity. Balances change through AccountBalanceRepository
+    // (debit/credit/adjustBalance), whose UPDATEs also bump the version
+    @Version
+    private Long version;
 }
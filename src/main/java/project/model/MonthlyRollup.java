@@ -0,0 +1,45 @@
+package project.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.math.BigDecimal;
+
+// Running totals per (user, account, month, type, category), kept in step with every transaction write.
+// Ids are stored as plain columns so maintaining a rollup never loads the account or user.
+@Entity
+@Data
+@Table(name = "monthly_rollups",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_monthly_rollups_key",
+                columnNames = {"user_id", "account_id", "year_month", "type", "category"}))
+public class MonthlyRollup {
+    // Stored in place of a null category so the unique key still matches
+    public static final String UNCATEGORIZED = "UNCATEGORIZED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private Long accountId;
+
+    // Formatted as yyyy-MM, same as YearMonth.toString()
+    @Column(nullable = false, length = 7)
+    private String yearMonth;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TransactionType type;
+
+    @Column(nullable = false)
+    private String category;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(nullable = false)
+    private long txCount;
+}
@@ -1,19 +1,31 @@
 package project.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import java.time.LocalDateTime;
 
 @Entity
 @Data
 @Table(name = "plaid_items")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // second-level cache, see ehcache.xml
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class PlaidItem {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User user;
 
     @Column(nullable = false)
@@ -26,6 +38,7 @@ public class PlaidItem {
     private String institutionName;
 
     // Added for transaction syncing
+    @Column(columnDefinition = "TEXT")
     private String transactionsCursor;
     private LocalDateTime lastSync;
     private String error;
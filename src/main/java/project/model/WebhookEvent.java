@@ -0,0 +1,54 @@
+package project.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+// A Plaid webhook waiting to be processed by WebhookQueueWorker
+@Entity
+@Data
+@Table(name = "webhook_events", indexes = {
+        @Index(name = "idx_webhook_events_due", columnList = "status, next_attempt_at")
+})
+public class WebhookEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String webhookType;
+    private String webhookCode;
+    private String itemId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private WebhookEventStatus status;
+
+    private int attempts;
+
+    // When PENDING: earliest retry time. When PROCESSING: lease expiry, after which the row can be reclaimed
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 2000)
+    private String lastError;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
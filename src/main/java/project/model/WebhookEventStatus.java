@@ -0,0 +1,8 @@
+package project.model;
+
+public enum WebhookEventStatus {
+    PENDING,
+    PROCESSING,
+    DONE,
+    FAILED
+}
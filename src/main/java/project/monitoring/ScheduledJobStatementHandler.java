@@ -0,0 +1,36 @@
+package project.monitoring;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.support.ScheduledTaskObservationContext;
+import org.springframework.stereotype.Component;
+
+// Opens a StatementScope around every @Scheduled run. Spring observes scheduled methods on the
+// thread that runs them, so start and stop bracket the job the same way the filter brackets a request.
+@Component
+@RequiredArgsConstructor
+public class ScheduledJobStatementHandler implements ObservationHandler<ScheduledTaskObservationContext> {
+    private final StatementBudgetRecorder recorder;
+
+    @Override
+    public void onStart(ScheduledTaskObservationContext context) {
+        context.put(StatementScope.class, StatementScope.open());
+    }
+
+    @Override
+    public void onStop(ScheduledTaskObservationContext context) {
+        StatementScope scope = context.get(StatementScope.class);
+        if (scope == null) {
+            return;
+        }
+        scope.close();
+        recorder.record(StatementBudgetRecorder.JOB,
+                context.getTargetClass().getSimpleName() + "." + context.getMethod().getName(), scope);
+    }
+
+    @Override
+    public boolean supportsContext(Observation.Context context) {
+        return context instanceof ScheduledTaskObservationContext;
+    }
+}
@@ -0,0 +1,68 @@
+package project.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Locale;
+
+// Counts the SQL statements each HTTP request issues, including those from the security filters.
+// Runs ahead of Spring Security so authentication lookups are charged to the request too.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@RequiredArgsConstructor
+public class StatementBudgetFilter extends OncePerRequestFilter {
+    public static final String STATEMENTS_HEADER = "X-SQL-Statements";
+
+    private final StatementBudgetRecorder recorder;
+    private final StatementBudgetProperties properties;
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        try (StatementScope scope = StatementScope.open()) {
+            HttpServletResponse target = response;
+            if (properties.isExposeHeaders()) {
+                // Headers must be written before the body commits the response, so the
+                // header reflects the statements issued up to that point
+                target = new OnCommittedResponseWrapper(response) {
+                    @Override
+                    protected void onResponseCommitted() {
+                        writeHeaders(response, scope);
+                    }
+                };
+            }
+
+            filterChain.doFilter(request, target);
+
+            if (properties.isExposeHeaders() && !response.isCommitted()) {
+                writeHeaders(response, scope);
+            }
+            recorder.record(StatementBudgetRecorder.REQUEST, name(request), scope);
+        }
+    }
+
+    private void writeHeaders(HttpServletResponse response, StatementScope scope) {
+        response.setHeader(STATEMENTS_HEADER, String.valueOf(scope.statements()));
+        response.setHeader("Server-Timing",
+                String.format(Locale.ROOT, "db;dur=%.1f", scope.dbNanos() / 1_000_000.0));
+    }
+
+    // Route template rather than the raw path, so metrics don't get a series per id
+    private String name(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : "UNMATCHED");
+    }
+}
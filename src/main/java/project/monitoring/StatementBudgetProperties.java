@@ -0,0 +1,20 @@
+package project.monitoring;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "application.sql-budget")
+@Data
+public class StatementBudgetProperties {
+    // Statements one HTTP request may issue before it is logged as over budget
+    private int requestStatements = 50;
+    // Same for one run of a scheduled job; the sync sweep touches every item
+    private int jobStatements = 100_000;
+    // Adds X-SQL-Statements and Server-Timing headers to responses. They reveal query counts and
+    // database time to any client, so they are for development and tests only.
+    private boolean exposeHeaders = false;
+    // Repeated statement shapes included in the over-budget log line
+    private int loggedShapes = 3;
+}
@@ -0,0 +1,58 @@
+package project.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Publishes a finished scope as metrics and logs it when it went over its statement budget
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StatementBudgetRecorder {
+    static final String REQUEST = "request";
+    static final String JOB = "job";
+
+    private final MeterRegistry meterRegistry;
+    private final StatementBudgetProperties properties;
+
+    public void record(String kind, String name, StatementScope scope) {
+        DistributionSummary.builder("db.statements")
+                .description("SQL statements issued per request or job run")
+                .tag("kind", kind)
+                .tag("name", name)
+                .register(meterRegistry)
+                .record(scope.statements());
+        Timer.builder("db.time")
+                .description("JDBC execution time per request or job run")
+                .tag("kind", kind)
+                .tag("name", name)
+                .register(meterRegistry)
+                .record(scope.dbNanos(), TimeUnit.NANOSECONDS);
+
+        int budget = REQUEST.equals(kind) ? properties.getRequestStatements() : properties.getJobStatements();
+        if (scope.statements() <= budget) {
+            return;
+        }
+        Counter.builder("db.statements.over.budget")
+                .description("Requests and job runs that issued more statements than their budget")
+                .tag("kind", kind)
+                .tag("name", name)
+                .register(meterRegistry)
+                .increment();
+
+        List<StatementScope.Shape> repeated = scope.repeatedShapes(properties.getLoggedShapes());
+        log.warn("{} {} issued {} SQL statements ({} ms in JDBC), budget is {}. Most repeated: {}",
+                kind, name, scope.statements(), TimeUnit.NANOSECONDS.toMillis(scope.dbNanos()), budget,
+                repeated.isEmpty() ? "none" : repeated.stream()
+                        .map(shape -> shape.count() + "x " + shape.sql())
+                        .collect(Collectors.joining(" | ")));
+    }
+}
@@ -0,0 +1,16 @@
+package project.monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Sees every statement Hibernate prepares, including lazy loads and flushes, and charges it
+// to the current StatementScope. The SQL is passed through unchanged.
+public class StatementCountingInspector implements StatementInspector {
+    @Override
+    public String inspect(String sql) {
+        StatementScope scope = StatementScope.current();
+        if (scope != null) {
+            scope.recordStatement(sql);
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,18 @@
+package project.monitoring;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class StatementMonitoringConfig {
+    // The inspector is shared by every session; the timing listener is created per session
+    @Bean
+    public HibernatePropertiesCustomizer statementMonitoringCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new StatementCountingInspector());
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, StatementTimingListener.class.getName());
+        };
+    }
+}
@@ -0,0 +1,130 @@
+package project.monitoring;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+// SQL statements issued by one unit of work (an HTTP request, a scheduled job or a test block).
+// The scope is bound to the current thread; work fanned out to other threads is attributed to it
+// through propagate(). Counts come from the Hibernate hooks, so plain JdbcTemplate access isn't seen.
+public final class StatementScope implements AutoCloseable {
+    // Enough for any request; a long job stops collecting new shapes but keeps counting
+    private static final int MAX_SHAPES = 256;
+    private static final ThreadLocal<StatementScope> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\?(?:\\s*,\\s*\\?)+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    public record Shape(String sql, int count) {
+    }
+
+    private final StatementScope previous;
+    private final AtomicInteger statements = new AtomicInteger();
+    private final AtomicLong dbNanos = new AtomicLong();
+    private final Map<String, AtomicInteger> shapes = new ConcurrentHashMap<>();
+
+    private StatementScope(StatementScope previous) {
+        this.previous = previous;
+    }
+
+    // Starts counting on this thread until close(). An enclosing scope resumes afterwards and
+    // is charged with everything the inner one saw, so a test can wrap a whole request.
+    public static StatementScope open() {
+        StatementScope scope = new StatementScope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    public static StatementScope current() {
+        return CURRENT.get();
+    }
+
+    // Runs the task inside the caller's scope, for work handed to executor threads
+    public static Runnable propagate(Runnable task) {
+        StatementScope scope = CURRENT.get();
+        if (scope == null) {
+            return task;
+        }
+        return () -> {
+            StatementScope outer = CURRENT.get();
+            CURRENT.set(scope);
+            try {
+                task.run();
+            } finally {
+                restore(outer);
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        if (CURRENT.get() != this) {
+            return;
+        }
+        restore(previous);
+        if (previous != null) {
+            previous.statements.addAndGet(statements.get());
+            previous.dbNanos.addAndGet(dbNanos.get());
+            shapes.forEach((shape, count) -> previous.addShape(shape, count.get()));
+        }
+    }
+
+    void recordStatement(String sql) {
+        statements.incrementAndGet();
+        addShape(shapeOf(sql), 1);
+    }
+
+    private void addShape(String shape, int times) {
+        AtomicInteger count = shapes.get(shape);
+        if (count == null && shapes.size() < MAX_SHAPES) {
+            count = shapes.computeIfAbsent(shape, k -> new AtomicInteger());
+        }
+        if (count != null) {
+            count.addAndGet(times);
+        }
+    }
+
+    void recordDbTime(long nanos) {
+        dbNanos.addAndGet(nanos);
+    }
+
+    public int statements() {
+        return statements.get();
+    }
+
+    public long dbNanos() {
+        return dbNanos.get();
+    }
+
+    // Shapes issued more than once, most frequent first: the signature of an N+1
+    public List<Shape> repeatedShapes(int limit) {
+        return shapes.entrySet().stream()
+                .map(e -> new Shape(e.getKey(), e.getValue().get()))
+                .filter(shape -> shape.count() > 1)
+                .sorted(Comparator.comparingInt(Shape::count).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    // Literals and IN-list lengths are masked so the same query with different arguments groups together
+    static String shapeOf(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = PARAMETER_LIST.matcher(shape).replaceAll("?...");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    private static void restore(StatementScope scope) {
+        if (scope == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(scope);
+        }
+    }
+}
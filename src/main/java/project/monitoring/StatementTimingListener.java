@@ -0,0 +1,37 @@
+package project.monitoring;
+
+import org.hibernate.SessionEventListener;
+
+// Adds JDBC execution time to the current StatementScope. Hibernate creates one listener per
+// session and a session is used by one thread at a time, so plain fields are enough.
+public class StatementTimingListener implements SessionEventListener {
+    private long executeStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executeStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        record(executeStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        record(batchStart);
+    }
+
+    private void record(long start) {
+        StatementScope scope = StatementScope.current();
+        if (scope != null) {
+            scope.recordDbTime(System.nanoTime() - start);
+        }
+    }
+}
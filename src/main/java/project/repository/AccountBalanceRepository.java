@@ -0,0 +1,69 @@
+package project.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import project.model.Account;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+// Atomic balance changes as plain JDBC updates. A JPQL or native bulk update makes Hibernate drop the
+// whole Account cache region (and related query results) on every write; here only the changed
+// account is evicted, again once the transaction ends so a concurrent reader can't re-cache the old row.
+// The row lock taken by the UPDATE is held until commit, and the version bump makes concurrent
+// optimistic edits of the same account fail instead of overwriting.
+@Repository
+@RequiredArgsConstructor
+public class AccountBalanceRepository {
+    private static final String DEBIT_SQL =
+            "UPDATE accounts SET balance = balance - ?, updated_at = ?, version = version + 1 " +
+            "WHERE id = ? AND balance >= ?";
+
+    private static final String CREDIT_SQL =
+            "UPDATE accounts SET balance = balance + ?, updated_at = ?, version = version + 1 WHERE id = ?";
+
+    private static final String ADJUST_SQL =
+            "UPDATE accounts SET balance = COALESCE(balance, 0) + ?, updated_at = ?, version = version + 1 " +
+            "WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    // Returns 0 without touching the balance when it would go negative
+    public int debit(Long id, BigDecimal amount, LocalDateTime now) {
+        return evictIfChanged(id, jdbcTemplate.update(DEBIT_SQL, amount, Timestamp.valueOf(now), id, amount));
+    }
+
+    public int credit(Long id, BigDecimal amount, LocalDateTime now) {
+        return evictIfChanged(id, jdbcTemplate.update(CREDIT_SQL, amount, Timestamp.valueOf(now), id));
+    }
+
+    // Applies a precomputed net change; callers hold the row lock and have checked the result isn't negative
+    public int adjustBalance(Long id, BigDecimal delta, LocalDateTime now) {
+        return evictIfChanged(id, jdbcTemplate.update(ADJUST_SQL, delta, Timestamp.valueOf(now), id));
+    }
+
+    private int evictIfChanged(Long id, int updated) {
+        if (updated > 0) {
+            evict(id);
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        evict(id);
+                    }
+                });
+            }
+        }
+        return updated;
+    }
+
+    private void evict(Long id) {
+        entityManagerFactory.getCache().evict(Account.class, id);
+    }
+}
@@ -1,12 +1,36 @@
 package project.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.repository.query.Param;
 import project.model.Account;
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface AccountRepository extends JpaRepository<Account, Long> {
     List<Account> findByUserId(Long userId);
+    // Served from the query cache; invalidated whenever the accounts table changes
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "query.accountsByUserEmail")
+    })
     List<Account> findByUserEmail(String email);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "query.accountByPlaidAccountId")
+    })
     Optional<Account> findByPlaidAccountId(String plaidAccountId);
+    List<Account> findByPlaidAccountIdIn(Collection<String> plaidAccountIds);
+
+    // Ownership-filtered lookup, so the check and the load are one query
+    Optional<Account> findByIdAndUserEmail(Long id, String userEmail);
+
+    @Query("SELECT COALESCE(SUM(a.balance), 0) FROM Account a WHERE a.user.email = :userEmail")
+    BigDecimal sumBalanceByUserEmail(@Param("userEmail") String userEmail);
 }
@@ -0,0 +1,57 @@
+package project.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.repository.query.Param;
+import project.model.MonthlyRollup;
+import project.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface MonthlyRollupRepository extends JpaRepository<MonthlyRollup, Long> {
+
+    // Adds a delta to one rollup row, creating it on first use.
+    // The native-spaces hint limits cache invalidation to this table (the default clears every region).
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "monthly_rollups"))
+    @Query(value = "INSERT INTO monthly_rollups (user_id, account_id, year_month, type, category, total_amount, tx_count) " +
+            "VALUES (:userId, :accountId, :yearMonth, :type, :category, :amount, :count) " +
+            "ON CONFLICT (user_id, account_id, year_month, type, category) DO UPDATE SET " +
+            "total_amount = monthly_rollups.total_amount + EXCLUDED.total_amount, " +
+            "tx_count = monthly_rollups.tx_count + EXCLUDED.tx_count", nativeQuery = true)
+    void applyDelta(@Param("userId") Long userId,
+                    @Param("accountId") Long accountId,
+                    @Param("yearMonth") String yearMonth,
+                    @Param("type") String type,
+                    @Param("category") String category,
+                    @Param("amount") BigDecimal amount,
+                    @Param("count") long count);
+
+    @Query("SELECT r FROM MonthlyRollup r " +
+            "WHERE r.userId IN (SELECT u.id FROM User u WHERE u.email = :userEmail) " +
+            "AND r.type = :type")
+    List<MonthlyRollup> findByUserEmailAndType(@Param("userEmail") String userEmail,
+                                               @Param("type") TransactionType type);
+
+    @Modifying
+    @Query("DELETE FROM MonthlyRollup r WHERE r.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    // Recomputes a user's rollups from the transactions table (used for backfills)
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "monthly_rollups"))
+    @Query(value = "INSERT INTO monthly_rollups (user_id, account_id, year_month, type, category, total_amount, tx_count) " +
+            "SELECT a.user_id, t.account_id, to_char(t.transaction_date, 'YYYY-MM'), t.type, " +
+            "COALESCE(t.category, '" + MonthlyRollup.UNCATEGORIZED + "'), SUM(t.amount), COUNT(*) " +
+            "FROM transactions t JOIN accounts a ON a.id = t.account_id " +
+            "WHERE a.user_id = :userId AND t.type IS NOT NULL AND t.amount IS NOT NULL " +
+            "AND t.transaction_date IS NOT NULL " +
+            "GROUP BY a.user_id, t.account_id, to_char(t.transaction_date, 'YYYY-MM'), t.type, " +
+            "COALESCE(t.category, '" + MonthlyRollup.UNCATEGORIZED + "')", nativeQuery = true)
+    int rebuildForUser(@Param("userId") Long userId);
+}
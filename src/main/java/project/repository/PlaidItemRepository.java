@@ -1,6 +1,11 @@
 package project.repository;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import project.dto.SyncCandidate;
 import project.model.PlaidItem;
 import project.model.User;
 import java.util.List;
@@ -11,4 +16,16 @@ public interface PlaidItemRepository extends JpaRepository<PlaidItem, Long> {
     Optional<PlaidItem> findByItemId(String itemId);
     Optional<PlaidItem> findByAccessToken(String accessToken);
     List<PlaidItem> findByUserEmail(String email);
+
+    // Reads the item from the database with SELECT ... FOR UPDATE, so syncs of the same item
+    // apply their pages one at a time until the surrounding transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM PlaidItem p WHERE p.id = :id")
+    Optional<PlaidItem> lockById(@Param("id") Long id);
+
+    // Scheduling data for the sync sweep without loading whole items
+    @Query("SELECT new project.dto.SyncCandidate(p.id, p.institutionId, p.lastSync, " +
+            "CASE WHEN p.transactionsCursor IS NOT NULL THEN true ELSE false END) " +
+            "FROM PlaidItem p")
+    List<SyncCandidate> findSyncCandidates();
 }
\ No newline at end of file
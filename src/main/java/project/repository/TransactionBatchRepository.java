@@ -0,0 +1,106 @@
+package project.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import project.dto.AccountBalanceRow;
+import project.model.Transaction;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// JDBC batch writes for high-volume ingestion paths where per-entity saves are too slow
+@Repository
+@RequiredArgsConstructor
+public class TransactionBatchRepository {
+    private static final int BATCH_SIZE = 500;
+
+    // Existing rows keep their account, type and createdAt; only the fields Plaid can modify are updated
+    private static final String UPSERT_PLAID_SQL =
+            "INSERT INTO transactions (account_id, plaid_transaction_id, amount, description, merchant, " +
+            "type, category, transaction_date, pending, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (plaid_transaction_id) DO UPDATE SET " +
+            "amount = EXCLUDED.amount, " +
+            "description = EXCLUDED.description, " +
+            "merchant = EXCLUDED.merchant, " +
+            "transaction_date = EXCLUDED.transaction_date, " +
+            "pending = EXCLUDED.pending, " +
+            "updated_at = EXCLUDED.updated_at";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO transactions (account_id, amount, description, merchant, " +
+            "type, category, transaction_date, pending, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Locks are taken in id order so concurrent bulk writers touching the same accounts can't deadlock.
+    // Only the caller's own accounts are locked; ids owned by anyone else are simply not returned.
+    private static final String LOCK_ACCOUNTS_SQL =
+            "SELECT a.id, a.user_id, u.email, a.balance FROM accounts a " +
+            "JOIN users u ON u.id = a.user_id " +
+            "WHERE a.id IN (:ids) AND u.email = :userEmail ORDER BY a.id FOR UPDATE OF a";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    // Reads and row-locks those of the given accounts the user owns until the surrounding transaction ends,
+    // keyed by id
+    public Map<Long, AccountBalanceRow> lockAccounts(String userEmail, Collection<Long> accountIds) {
+        Map<Long, AccountBalanceRow> accounts = new LinkedHashMap<>();
+        if (accountIds.isEmpty()) {
+            return accounts;
+        }
+        namedParameterJdbcTemplate.query(LOCK_ACCOUNTS_SQL, new MapSqlParameterSource("ids", accountIds)
+                .addValue("userEmail", userEmail), rs -> {
+            AccountBalanceRow row = new AccountBalanceRow(
+                    rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getBigDecimal(4));
+            accounts.put(row.getAccountId(), row);
+        });
+        return accounts;
+    }
+
+    // Plain inserts for manually entered transactions, in JDBC batches
+    public void insertTransactions(List<Transaction> transactions) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, transactions, BATCH_SIZE, (ps, t) -> {
+            ps.setLong(1, t.getAccount().getId());
+            ps.setBigDecimal(2, t.getAmount());
+            ps.setString(3, t.getDescription());
+            ps.setString(4, t.getMerchant());
+            ps.setString(5, t.getType().name());
+            ps.setString(6, t.getCategory() != null ? t.getCategory().name() : null);
+            ps.setTimestamp(7, Timestamp.valueOf(t.getTransactionDate()));
+            ps.setBoolean(8, Boolean.TRUE.equals(t.getPending()));
+            ps.setTimestamp(9, Timestamp.valueOf(t.getCreatedAt()));
+            ps.setTimestamp(10, Timestamp.valueOf(t.getUpdatedAt()));
+        });
+    }
+
+    // Inserts new Plaid transactions and updates existing ones in JDBC batches
+    public void upsertPlaidTransactions(List<Transaction> transactions) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPSERT_PLAID_SQL, transactions, BATCH_SIZE, (ps, t) -> {
+            ps.setLong(1, t.getAccount().getId());
+            ps.setString(2, t.getPlaidTransactionId());
+            ps.setBigDecimal(3, t.getAmount());
+            ps.setString(4, t.getDescription());
+            ps.setString(5, t.getMerchant());
+            ps.setString(6, t.getType() != null ? t.getType().name() : null);
+            ps.setString(7, t.getCategory() != null ? t.getCategory().name() : null);
+            ps.setTimestamp(8, Timestamp.valueOf(t.getTransactionDate()));
+            if (t.getPending() != null) {
+                ps.setBoolean(9, t.getPending());
+            } else {
+                ps.setNull(9, Types.BOOLEAN);
+            }
+            ps.setTimestamp(10, now);
+            ps.setTimestamp(11, now);
+        });
+    }
+}
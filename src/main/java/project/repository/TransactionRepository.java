@@ -2,19 +2,42 @@
 package project.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.repository.query.Param;
+import project.dto.TransactionRollupRow;
 import project.model.Account;
 import project.model.Transaction;
 import project.model.TransactionCategory;
 import project.model.TransactionType;
 import java.util.Optional;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
     Optional<Transaction> findByPlaidTransactionId(String plaidTransactionId);
+
+    // Stored values of the given Plaid transactions (no entities), used to diff rollups on upsert and removal
+    @Query("SELECT new project.dto.TransactionRollupRow(t.plaidTransactionId, t.account.user.id, t.account.id, " +
+            "t.amount, t.transactionDate, t.type, t.category) " +
+            "FROM Transaction t WHERE t.plaidTransactionId IN :plaidTransactionIds")
+    List<TransactionRollupRow> findRollupRowsByPlaidTransactionIdIn(
+            @Param("plaidTransactionIds") Collection<String> plaidTransactionIds);
+
+    // Removes transactions Plaid reported as deleted during a sync
+    @Modifying
+    @Query("DELETE FROM Transaction t WHERE t.plaidTransactionId IN :plaidTransactionIds")
+    int deleteByPlaidTransactionIdIn(@Param("plaidTransactionIds") List<String> plaidTransactionIds);
+
     // Find transactions by date range
     List<Transaction> findByAccountIdAndTransactionDateBetween(
             Long accountId, LocalDateTime start, LocalDateTime end);
@@ -35,14 +58,12 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
             TransactionType type
     );
 
+    // Ownership-filtered lookup, so the check and the load are one query
+    Optional<Transaction> findByIdAndAccountUserEmail(Long id, String userEmail);
+
     // Find by Id
     List<Transaction> findByAccountId(Long accountId);
 
-    // Find by user email and date range
-    List<Transaction> findByAccountUserEmailAndTransactionDateBetween(
-            String userEmail, LocalDateTime startDate, LocalDateTime endDate
-    );  // Added missing semicolon
-
     // Find by account list and category
     List<Transaction> findByAccountInAndCategory(
             List<Account> accounts,
@@ -57,9 +78,18 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     // Find by merchant
     List<Transaction> findByMerchantContainingIgnoreCase(String merchant);
 
-    // Date-based queries
-    List<Transaction> findByTransactionDateBetween(LocalDateTime start, LocalDateTime end);
-    List<Transaction> findByTransactionDateAfter(LocalDateTime date);
+    // Expense totals per (period, category) for one user since a date, in one indexed range read.
+    // Periods come back as ISO dates of the period start; unit is a date_trunc unit such as 'month'.
+    @Query(value = "SELECT to_char(date_trunc(:unit, t.transaction_date), 'YYYY-MM-DD') AS period, " +
+            "t.category, SUM(t.amount) " +
+            "FROM transactions t JOIN accounts a ON a.id = t.account_id " +
+            "JOIN users u ON u.id = a.user_id " +
+            "WHERE u.email = :userEmail AND t.type = 'EXPENSE' AND t.transaction_date >= :startDate " +
+            "AND t.amount IS NOT NULL " +
+            "GROUP BY 1, 2 ORDER BY 1", nativeQuery = true)
+    List<Object[]> sumExpensesByPeriodAndCategory(@Param("userEmail") String userEmail,
+                                                  @Param("unit") String unit,
+                                                  @Param("startDate") LocalDateTime startDate);
 
     // Find pending transactions for accounts
     List<Transaction> findByAccountInAndPendingTrue(List<Account> accounts);
@@ -74,14 +104,65 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
             Pageable pageable
     );
 
-    // Category totals
-    @Query("SELECT t.category, SUM(t.amount) FROM Transaction t " +
-            "WHERE t.transactionDate >= :startDate " +
-            "GROUP BY t.category")
-    List<Object[]> findCategoryTotals(@Param("startDate") LocalDateTime startDate);
-
     List<Transaction> findByAccountUserEmailAndPendingTrue(String userEmail);
 
+    // Full history as a database cursor for exports; the caller must consume it inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Transaction t " +
+            "WHERE t.account.user.email = :userEmail " +
+            "ORDER BY t.transactionDate, t.id")
+    Stream<Transaction> streamByUserEmail(@Param("userEmail") String userEmail);
+
+    // (merchant, category, amount) of expenses, as database cursors for the sketch builders.
+    // Callers must consume them inside a transaction.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t.merchant, t.category, t.amount FROM Transaction t " +
+            "WHERE t.account.user.email = :userEmail AND t.type = :type AND t.amount IS NOT NULL")
+    Stream<Object[]> streamSketchRowsByUserEmail(@Param("userEmail") String userEmail,
+                                                 @Param("type") TransactionType type);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t.merchant, t.category, t.amount FROM Transaction t " +
+            "WHERE t.type = :type AND t.amount IS NOT NULL")
+    Stream<Object[]> streamSketchRows(@Param("type") TransactionType type);
+
+    // Keyset-paginated listings, newest first. (transactionDate, id) is unique, so pages are stable.
+    Window<Transaction> findByAccountUserEmailOrderByTransactionDateDescIdDesc(
+            String userEmail, ScrollPosition position, Limit limit);
+
+    Window<Transaction> findByAccountUserEmailAndPendingTrueOrderByTransactionDateDescIdDesc(
+            String userEmail, ScrollPosition position, Limit limit);
+
+    Window<Transaction> findByAccountUserEmailAndTransactionDateBetweenOrderByTransactionDateDescIdDesc(
+            String userEmail, LocalDateTime startDate, LocalDateTime endDate, ScrollPosition position, Limit limit);
+
+    Window<Transaction> findByAccountUserEmailAndTypeOrderByTransactionDateDescIdDesc(
+            String userEmail, TransactionType type, ScrollPosition position, Limit limit);
+
+    Window<Transaction> findByAccountUserEmailAndCategoryOrderByTransactionDateDescIdDesc(
+            String userEmail, TransactionCategory category, ScrollPosition position, Limit limit);
+
+    // The columns of the analytics snapshot, in date order, as a database cursor; the caller must
+    // consume it inside a transaction. Rows the rollups would skip are left out too.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t.transactionDate, t.amount, t.type, t.category, t.merchant FROM Transaction t " +
+            "WHERE t.account.user.email = :userEmail " +
+            "AND t.transactionDate IS NOT NULL AND t.amount IS NOT NULL AND t.type IS NOT NULL " +
+            "ORDER BY t.transactionDate")
+    Stream<Object[]> streamColumnRowsByUserEmail(@Param("userEmail") String userEmail);
+
     @Query("SELECT t FROM Transaction t " +
             "WHERE t.account.user.email = :userEmail " +
             "AND t.transactionDate >= :startDate " +
@@ -93,7 +174,6 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
             @Param("type") TransactionType type,
             Pageable pageable
     );
-    // Removed duplicate sumByCategory as it's similar to findCategoryTotals
 }
 
 
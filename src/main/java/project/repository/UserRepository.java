@@ -2,11 +2,16 @@
 package project.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import project.model.User;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);  // Changed from User to Optional<User>
     boolean existsByEmail(String email);
 
+    @Query("SELECT u.id FROM User u")
+    List<Long> findAllIds();
+
 }
\ No newline at end of file
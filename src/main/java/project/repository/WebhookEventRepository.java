@@ -0,0 +1,45 @@
+package project.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import project.model.WebhookEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface WebhookEventRepository extends JpaRepository<WebhookEvent, Long> {
+    // Locks due rows; rows already locked by another worker are skipped rather than waited on.
+    // PROCESSING rows are only due once their lease has expired (worker crashed mid-event).
+    @Query(value = "SELECT * FROM webhook_events " +
+            "WHERE status IN ('PENDING', 'PROCESSING') AND next_attempt_at <= :now " +
+            "ORDER BY id " +
+            "LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<WebhookEvent> lockDueEvents(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    // Queues a webhook unless an identical one is still PENDING (partial unique index from V4).
+    // Returns 0 when it was collapsed into the waiting row.
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO webhook_events (webhook_type, webhook_code, item_id, status, attempts, " +
+            "next_attempt_at, created_at, updated_at) " +
+            "VALUES (:webhookType, :webhookCode, :itemId, 'PENDING', 0, :now, :now, :now) " +
+            "ON CONFLICT (item_id, webhook_type, webhook_code) WHERE status = 'PENDING' DO NOTHING",
+            nativeQuery = true)
+    int insertPendingIfAbsent(@Param("webhookType") String webhookType,
+                              @Param("webhookCode") String webhookCode,
+                              @Param("itemId") String itemId,
+                              @Param("now") LocalDateTime now);
+
+    // Deletes up to :limit DONE/FAILED rows last touched before the cutoff
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM webhook_events WHERE id IN (" +
+            "SELECT id FROM webhook_events " +
+            "WHERE status IN ('DONE', 'FAILED') AND updated_at < :cutoff " +
+            "LIMIT :limit)", nativeQuery = true)
+    int deleteFinishedBefore(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+}
@@ -0,0 +1,29 @@
+package project.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import project.config.CacheConfig;
+import project.model.User;
+import project.repository.UserRepository;
+
+// Loads principals for authentication and keeps them in a TTL cache keyed by email.
+// The cached value is a UserPrincipal snapshot rather than the User entity, so it carries
+// no lazy associations and is safe to share across requests.
+@Service
+@RequiredArgsConstructor
+public class CachedUserDetailsService implements UserDetailsService {
+    private final UserRepository userRepository;
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.USER_DETAILS_CACHE, key = "#username")
+    public UserDetails loadUserByUsername(String username) {
+        User user = userRepository.findByEmail(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+
+        return UserPrincipal.from(user);
+    }
+}
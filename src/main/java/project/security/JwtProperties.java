@@ -12,4 +12,6 @@ public class JwtProperties {
     private String secretKey;
     private long expiration;
     private String tokenPrefix;
+    // Upper bound on tokens remembered as already verified
+    private long verifiedTokenCacheSize = 10_000;
 }
\ No newline at end of file
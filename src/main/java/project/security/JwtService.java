@@ -1,7 +1,12 @@
 // project/security/JwtService.java
 package project.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -12,14 +17,48 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class JwtService {
     private final JwtProperties jwtProperties;
+    // Derived once; building the key and parser per call dominated filter CPU
+    private final Key signingKey;
+    private final JwtParser parser;
+    // Tokens whose signature has already been checked, kept until they expire
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    private record VerifiedToken(String subject, long expiresAtMillis) {
+    }
 
     public JwtService(JwtProperties jwtProperties) {
         this.jwtProperties = jwtProperties;
+        this.signingKey = Keys.hmacShaKeyFor(jwtProperties.getSecretKey().getBytes());
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(jwtProperties.getVerifiedTokenCacheSize())
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String token, VerifiedToken verified, long currentTime) {
+                        long remainingMillis = verified.expiresAtMillis() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, VerifiedToken verified, long currentTime,
+                                                  long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, VerifiedToken verified, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
     public String generateToken(UserDetails userDetails) {
@@ -32,42 +71,43 @@ public class JwtService {
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + jwtProperties.getExpiration()))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+    // Checks signature and expiry with at most one parse per token, and returns the subject.
+    // Returns null for tokens that are malformed, badly signed or expired.
+    public String verifyAndExtractUsername(String token) {
+        VerifiedToken verified = verifiedTokens.getIfPresent(token);
+        if (verified == null) {
+            try {
+                Claims claims = extractAllClaims(token);
+                if (claims.getExpiration() == null || claims.getSubject() == null) {
+                    return null;
+                }
+                verified = new VerifiedToken(claims.getSubject(), claims.getExpiration().getTime());
+            } catch (JwtException | IllegalArgumentException e) {
+                return null;
+            }
+            verifiedTokens.put(token, verified);
+        }
+        // The cache evicts on expiry, but a hit can still land in the last few microseconds
+        return verified.expiresAtMillis() > System.currentTimeMillis() ? verified.subject() : null;
     }
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+    public boolean isTokenValid(String token, UserDetails userDetails) {
+        final String username = verifyAndExtractUsername(token);
+        return username != null && username.equals(userDetails.getUsername());
     }
 
-    private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    public String extractUsername(String token) {
+        return extractAllClaims(token).getSubject();
     }
 
+    // Throws JwtException for bad signatures and expired tokens
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
+        return parser
                 .parseClaimsJws(token)
                 .getBody();
     }
-
-    private Key getSigningKey() {
-        byte[] keyBytes = jwtProperties.getSecretKey().getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,33 @@
+package project.security;
+
+import lombok.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import project.model.User;
+
+import java.util.Collection;
+import java.util.List;
+
+// Immutable principal kept in the userDetails cache. Deliberately not a CredentialsContainer:
+// Spring Security erases credentials on those after login, which would blank the cached password.
+@Value
+public class UserPrincipal implements UserDetails {
+    String username;
+    String password;
+    Collection<? extends GrantedAuthority> authorities;
+    boolean accountNonExpired;
+    boolean accountNonLocked;
+    boolean credentialsNonExpired;
+    boolean enabled;
+
+    public static UserPrincipal from(User user) {
+        return new UserPrincipal(
+                user.getEmail(),
+                user.getPassword(),
+                List.copyOf(user.getAuthorities()),
+                user.isAccountNonExpired(),
+                user.isAccountNonLocked(),
+                user.isCredentialsNonExpired(),
+                user.isEnabled());
+    }
+}
@@ -0,0 +1,5 @@
+package project.service;
+
+// Published when a user's accounts are created, edited, deleted or refreshed from Plaid
+public record AccountDataChangedEvent(Long userId) {
+}
@@ -1,6 +1,7 @@
 package project.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import project.dto.AccountDTO;
 import project.model.Account;
@@ -17,6 +18,8 @@ import java.util.List;
 public class AccountService {
     private final AccountRepository accountRepository;
     private final UserRepository userRepository;
+    private final OwnershipService ownershipService;
+    private final ApplicationEventPublisher eventPublisher;
 
     //Create a new account for a user
     public Account createAccount(String userEmail, AccountDTO accountDTO){
@@ -35,7 +38,9 @@ public class AccountService {
         account.setCreatedAt(LocalDateTime.now());
         account.setUpdatedAt(LocalDateTime.now());
 
-        return accountRepository.save(account);
+        Account saved = accountRepository.save(account);
+        eventPublisher.publishEvent(new AccountDataChangedEvent(user.getId()));
+        return saved;
     }
 
     // Get all accounts for a user
@@ -45,15 +50,8 @@ public class AccountService {
 
     // Get specific account details
     public Account getAccount(Long accountId, String userEmail) {
-        Account account = accountRepository.findById(accountId)
-                .orElseThrow(() -> new EntityNotFoundException("Account not found"));
-
         // Security check - ensure account belongs to user
-        if (!account.getUser().getEmail().equals(userEmail)) {
-            throw new SecurityException("Not authorized to access this account");
-        }
-
-        return account;
+        return ownershipService.requireOwnedAccount(accountId, userEmail);
     }
 
     // Update account details
@@ -67,12 +65,15 @@ public class AccountService {
         account.setBalance(accountDTO.getBalance());
         account.setUpdatedAt(LocalDateTime.now());
 
-        return accountRepository.save(account);
+        Account saved = accountRepository.save(account);
+        eventPublisher.publishEvent(new AccountDataChangedEvent(account.getUser().getId()));
+        return saved;
     }
 
     // Delete an account
     public void deleteAccount(Long accountId, String userEmail) {
         Account account = getAccount(accountId, userEmail);
         accountRepository.delete(account);
+        eventPublisher.publishEvent(new AccountDataChangedEvent(account.getUser().getId()));
     }
 }
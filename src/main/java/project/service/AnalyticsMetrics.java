@@ -0,0 +1,30 @@
+package project.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+// Service-side latency of the analytics endpoints, tagged by endpoint and by whether the
+// result cache served it (hit, miss, or none for endpoints that don't go through it)
+@Component
+@RequiredArgsConstructor
+public class AnalyticsMetrics {
+    static final String UNCACHED = "none";
+
+    private final MeterRegistry meterRegistry;
+
+    public <T> T record(String endpoint, Supplier<T> work) {
+        return timer(endpoint, UNCACHED).record(work);
+    }
+
+    Timer timer(String endpoint, String cache) {
+        return Timer.builder("analytics.requests")
+                .description("Analytics computations by endpoint")
+                .tag("endpoint", endpoint)
+                .tag("cache", cache)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,128 @@
+package project.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import project.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Caches computed analytics responses per (user, endpoint, parameters). Every entry is stamped with the
+// user's data version at the time it was computed; any write bumps the version, so an entry is served
+// only while nothing it was derived from has changed. Expiry only bounds memory, it isn't what keeps
+// results fresh: entries for past months live much longer than those covering the current month.
+@Service
+public class AnalyticsResultCache {
+    private record Key(String userEmail, String endpoint, Object params) {
+    }
+
+    private record Entry(long version, Object value, boolean longLived) {
+    }
+
+    private final UserRepository userRepository;
+    private final TransactionColumnCache columnCache;
+    private final MeterRegistry meterRegistry;
+    private final AnalyticsMetrics analyticsMetrics;
+    private final Cache<Key, Entry> results;
+    // Versions come from one global clock, so a version recreated after eviction is always newer
+    // than any version stamped on a cached result
+    private final Cache<String, Long> versions;
+    private final AtomicLong clock = new AtomicLong();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public AnalyticsResultCache(UserRepository userRepository,
+                                TransactionColumnCache columnCache,
+                                MeterRegistry meterRegistry,
+                                AnalyticsMetrics analyticsMetrics,
+                                @Value("${application.cache.analytics.max-size:50000}") long maxSize,
+                                @Value("${application.cache.analytics.current-ttl:15m}") Duration currentTtl,
+                                @Value("${application.cache.analytics.past-month-ttl:7d}") Duration pastMonthTtl) {
+        this.userRepository = userRepository;
+        this.columnCache = columnCache;
+        this.meterRegistry = meterRegistry;
+        this.analyticsMetrics = analyticsMetrics;
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<Key, Entry>() {
+                    @Override
+                    public long expireAfterCreate(Key key, Entry entry, long currentTime) {
+                        return (entry.longLived() ? pastMonthTtl : currentTtl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Key key, Entry entry, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Key key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    // longLived marks results that only change if history is rewritten, such as a closed month
+    @SuppressWarnings("unchecked")
+    public <T> T get(String userEmail, String endpoint, Object params, boolean longLived, Supplier<T> compute) {
+        long start = System.nanoTime();
+        long version = versions.get(userEmail, k -> clock.incrementAndGet());
+        Key key = new Key(userEmail, endpoint, params);
+
+        Entry entry = results.getIfPresent(key);
+        if (entry != null && entry.version() == version) {
+            counter(endpoint, "hit").increment();
+            analyticsMetrics.timer(endpoint, "hit").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return (T) entry.value();
+        }
+
+        counter(endpoint, "miss").increment();
+        // Stamped with the version read before computing: a write landing mid-computation
+        // bumps the version and the entry is never served
+        T value = compute.get();
+        results.put(key, new Entry(version, value, longLived));
+        analyticsMetrics.timer(endpoint, "miss").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return value;
+    }
+
+    // The columnar snapshot results are computed from is dropped before the version moves on.
+    // Two independent listeners could run in either order, and a read landing between a bump and
+    // a later eviction would store an old-snapshot result under the new version.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransactionDataChanged(TransactionDataChangedEvent event) {
+        userRepository.findById(event.userId()).ifPresent(user -> {
+            columnCache.invalidate(user.getEmail());
+            bump(user.getEmail());
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountDataChanged(AccountDataChangedEvent event) {
+        userRepository.findById(event.userId()).ifPresent(user -> bump(user.getEmail()));
+    }
+
+    private void bump(String userEmail) {
+        versions.put(userEmail, clock.incrementAndGet());
+    }
+
+    private Counter counter(String endpoint, String result) {
+        return counters.computeIfAbsent(endpoint + ":" + result, k -> Counter.builder("analytics.cache.requests")
+                .description("Analytics result cache lookups")
+                .tag("endpoint", endpoint)
+                .tag("result", result)
+                .register(meterRegistry));
+    }
+}
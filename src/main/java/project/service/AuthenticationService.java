@@ -5,10 +5,13 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
+import project.config.CacheConfig;
 import project.dto.AuthResponse;
 import project.dto.LoginRequest;
 import project.dto.RegisterRequest;
+import project.model.Role;
 import project.model.User;
 import project.repository.UserRepository;
 import project.security.JwtService;
@@ -21,12 +24,14 @@ public class AuthenticationService {
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
 
+    @CacheEvict(cacheNames = CacheConfig.USER_DETAILS_CACHE, key = "#request.email")
     public AuthResponse register(RegisterRequest request) {
         User user = new User();
         user.setFirstName(request.getFirstName());
         user.setLastName(request.getLastName());
         user.setEmail(request.getEmail());
         user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setRole(Role.USER);
 
         userRepository.save(user);
 
@@ -2,130 +2,100 @@ package project.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import project.model.Transaction;
+import project.exception.InvalidTransactionDataException;
 import project.repository.TransactionRepository;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.time.LocalDateTime;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.YearMonth;
+import java.time.temporal.TemporalAdjusters;
 
 import project.dto.*;
 import project.model.*;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class FinancialAnalysisService {
-    private final TransactionRepository transactionRepository;
+    static final int MAX_TREND_MONTHS = 60;
 
+    private final TransactionRepository transactionRepository;
+    private final TransactionService transactionService;
+    private final AnalyticsMetrics analyticsMetrics;
 
-    public MonthlyAnalysis getMonthlyAnalysis(YearMonth month) {
-        // Convert YearMonth to LocalDateTime range
-        LocalDateTime startDate = month.atDay(1).atStartOfDay();
-        LocalDateTime endDate = month.atEndOfMonth().atTime(23, 59, 59);
-
-        // Get transactions for the month
-        List<Transaction> transactions = transactionRepository
-                .findByTransactionDateBetween(startDate, endDate);
-
-        MonthlyAnalysis analysis = new MonthlyAnalysis();
-
-        // Calculate totals
-        BigDecimal totalIncome = transactions.stream()
-                .filter(t -> t.getType() == TransactionType.INCOME)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalExpenses = transactions.stream()
-                .filter(t -> t.getType() == TransactionType.EXPENSE)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // Group by category
-        Map<TransactionCategory, BigDecimal> spendingByCategory = transactions.stream()
-                .filter(t -> t.getType() == TransactionType.EXPENSE)
-                .collect(Collectors.groupingBy(
-                        Transaction::getCategory,
-                        Collectors.reducing(
-                                BigDecimal.ZERO,
-                                Transaction::getAmount,
-                                BigDecimal::add
-                        )
-                ));
-
-        // Get top merchants
-        Map<String, BigDecimal> topMerchants = transactions.stream()
-                .filter(t -> t.getType() == TransactionType.EXPENSE)
-                .collect(Collectors.groupingBy(
-                        Transaction::getMerchant,
-                        Collectors.reducing(
-                                BigDecimal.ZERO,
-                                Transaction::getAmount,
-                                BigDecimal::add
-                        )
-                ));
-
-        analysis.setTotalIncome(totalIncome);
-        analysis.setTotalExpenses(totalExpenses);
-        analysis.setNetSavings(totalIncome.subtract(totalExpenses));
-        analysis.setSpendingByCategory(spendingByCategory);
-        analysis.setTopMerchants(topMerchants);
-
-        return analysis;
+    // Same analysis as the transactions endpoint: served from the result cache and the user's columnar
+    // snapshot, and timed there
+    public MonthlyAnalysis getMonthlyAnalysis(String userEmail, YearMonth month) {
+        return transactionService.getMonthlyAnalysis(userEmail, month);
     }
 
-    public SpendingTrends getSpendingTrends() {
-        // Get last 6 months of data
-        YearMonth currentMonth = YearMonth.now();
-        Map<YearMonth, BigDecimal> monthlySpending = new TreeMap<>();
+    public SpendingTrends getSpendingTrends(String userEmail, int months, TrendGranularity granularity) {
+        return analyticsMetrics.record("analysis.trends", () -> computeSpendingTrends(userEmail, months, granularity));
+    }
 
-        for (int i = 0; i < 6; i++) {
-            YearMonth month = currentMonth.minusMonths(i);
-            MonthlyAnalysis monthAnalysis = getMonthlyAnalysis(month);
-            monthlySpending.put(month, monthAnalysis.getTotalExpenses());
+    // Trends over the last N months (including the current one) from a single GROUP BY query,
+    // bucketed by month or by week
+    private SpendingTrends computeSpendingTrends(String userEmail, int months, TrendGranularity granularity) {
+        if (months < 1 || months > MAX_TREND_MONTHS) {
+            throw new InvalidTransactionDataException(
+                    "Trend window must be between 1 and " + MAX_TREND_MONTHS + " months");
+        }
+        LocalDate today = LocalDate.now();
+        // Weekly buckets start on Monday, so the first week may begin before the window does
+        LocalDate firstPeriod = periodStart(YearMonth.now().minusMonths(months - 1).atDay(1), granularity);
+
+        // Every period in the window is present, even without spending
+        Map<LocalDate, BigDecimal> periodSpending = new TreeMap<>();
+        for (LocalDate period = firstPeriod; !period.isAfter(today); period = nextPeriod(period, granularity)) {
+            periodSpending.put(period, BigDecimal.ZERO);
+        }
+        Map<TransactionCategory, BigDecimal> categoryTrends = new EnumMap<>(TransactionCategory.class);
+
+        for (Object[] row : transactionRepository.sumExpensesByPeriodAndCategory(
+                userEmail, granularity.getDateTruncUnit(), firstPeriod.atStartOfDay())) {
+            LocalDate period = LocalDate.parse((String) row[0]);
+            BigDecimal amount = (BigDecimal) row[2];
+            periodSpending.merge(period, amount, BigDecimal::add);
+            if (row[1] != null) {
+                categoryTrends.merge(TransactionCategory.valueOf((String) row[1]), amount, BigDecimal::add);
+            }
         }
-
-        // Calculate category trends
-        Map<TransactionCategory, BigDecimal> categoryTrends = getCategoryTrends();
-
-        // Calculate percentage changes
-        Map<String, Double> percentageChanges = calculatePercentageChanges(monthlySpending);
 
         SpendingTrends trends = new SpendingTrends();
-        trends.setMonthlySpending(monthlySpending);
+        trends.setGranularity(granularity);
+        trends.setPeriodSpending(periodSpending);
+        if (granularity == TrendGranularity.MONTHLY) {
+            Map<YearMonth, BigDecimal> monthlySpending = new TreeMap<>();
+            periodSpending.forEach((period, amount) -> monthlySpending.put(YearMonth.from(period), amount));
+            trends.setMonthlySpending(monthlySpending);
+        }
         trends.setCategoryTrends(categoryTrends);
-        trends.setPercentageChanges(percentageChanges);
+        trends.setPercentageChanges(calculatePercentageChanges(periodSpending, granularity));
 
         return trends;
     }
 
-    private Map<TransactionCategory, BigDecimal> getCategoryTrends() {
-        LocalDateTime sixMonthsAgo = LocalDateTime.now().minusMonths(6);
-        return transactionRepository.findByTransactionDateAfter(sixMonthsAgo)
-                .stream()
-                .filter(t -> t.getType() == TransactionType.EXPENSE)
-                .collect(Collectors.groupingBy(
-                        Transaction::getCategory,
-                        Collectors.reducing(
-                                BigDecimal.ZERO,
-                                Transaction::getAmount,
-                                BigDecimal::add
-                        )
-                ));
+    private LocalDate periodStart(LocalDate date, TrendGranularity granularity) {
+        return granularity == TrendGranularity.WEEKLY
+                ? date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                : date.withDayOfMonth(1);
+    }
+
+    private LocalDate nextPeriod(LocalDate period, TrendGranularity granularity) {
+        return granularity == TrendGranularity.WEEKLY ? period.plusWeeks(1) : period.plusMonths(1);
     }
 
+    // Change of the latest period against the one before it
     private Map<String, Double> calculatePercentageChanges(
-            Map<YearMonth, BigDecimal> monthlySpending) {
+            Map<LocalDate, BigDecimal> periodSpending, TrendGranularity granularity) {
         Map<String, Double> changes = new HashMap<>();
-        List<YearMonth> months = new ArrayList<>(monthlySpending.keySet());
+        List<LocalDate> periods = new ArrayList<>(periodSpending.keySet());
 
-        if (months.size() >= 2) {
-            YearMonth currentMonth = months.get(0);
-            YearMonth previousMonth = months.get(1);
-            BigDecimal currentAmount = monthlySpending.get(currentMonth);
-            BigDecimal previousAmount = monthlySpending.get(previousMonth);
+        if (periods.size() >= 2) {
+            BigDecimal currentAmount = periodSpending.get(periods.get(periods.size() - 1));
+            BigDecimal previousAmount = periodSpending.get(periods.get(periods.size() - 2));
 
             if (previousAmount.compareTo(BigDecimal.ZERO) != 0) {
                 double percentageChange = currentAmount
@@ -134,7 +104,8 @@ public class FinancialAnalysisService {
                         .multiply(new BigDecimal(100))
                         .doubleValue();
 
-                changes.put("month_over_month", percentageChange);
+                changes.put(granularity == TrendGranularity.WEEKLY ? "week_over_week" : "month_over_month",
+                        percentageChange);
             }
         }
 
@@ -0,0 +1,36 @@
+package project.service;
+
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import project.model.Account;
+import project.model.Transaction;
+import project.repository.AccountRepository;
+import project.repository.TransactionRepository;
+
+// Loads an entity only if the user owns it, in one query that filters on the owner's email
+@Service
+@RequiredArgsConstructor
+public class OwnershipService {
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+
+    // The exists query only runs on the failure path, to tell "missing" from "not yours"
+    public Account requireOwnedAccount(Long accountId, String userEmail) {
+        return accountRepository.findByIdAndUserEmail(accountId, userEmail).orElseThrow(() -> {
+            if (!accountRepository.existsById(accountId)) {
+                return new EntityNotFoundException("Account not found");
+            }
+            return new SecurityException("Not authorized to access this account");
+        });
+    }
+
+    public Transaction requireOwnedTransaction(Long transactionId, String userEmail) {
+        return transactionRepository.findByIdAndAccountUserEmail(transactionId, userEmail).orElseThrow(() -> {
+            if (!transactionRepository.existsById(transactionId)) {
+                return new EntityNotFoundException("Transaction not found");
+            }
+            return new SecurityException("Not authorized to access this transaction");
+        });
+    }
+}
@@ -4,6 +4,7 @@ import com.plaid.client.model.*;
 import com.plaid.client.request.PlaidApi;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import project.model.Account;
@@ -27,6 +28,7 @@ public class PlaidAccountService {
     private final AccountRepository accountRepository;
     private final PlaidItemRepository plaidItemRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public List<Account> syncAccountsForItem(PlaidItem item) {
@@ -63,6 +65,7 @@ public class PlaidAccountService {
                 }
             }
 
+            eventPublisher.publishEvent(new AccountDataChangedEvent(user.getId()));
             return createdAccounts;
         } catch (Exception e) {
             log.error("Error syncing accounts for item {}: {}", item.getItemId(), e.getMessage());
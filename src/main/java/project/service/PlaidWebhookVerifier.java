@@ -0,0 +1,150 @@
+package project.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.plaid.client.model.JWKPublicKey;
+import com.plaid.client.model.WebhookVerificationKeyGetRequest;
+import com.plaid.client.model.WebhookVerificationKeyGetResponse;
+import com.plaid.client.request.PlaidApi;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import retrofit2.Response;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Checks the Plaid-Verification header on incoming webhooks: an ES256 JWT signed with a key from
+// /webhook_verification_key/get, issued within the last five minutes, whose request_body_sha256
+// claim matches the body we received. The simulator can't sign, so it is trusted as is.
+@Service
+@Slf4j
+public class PlaidWebhookVerifier {
+    private static final Duration MAX_AGE = Duration.ofMinutes(5);
+    // The webhook endpoint is unauthenticated, so lookups of unknown kids are the only way a caller can
+    // make us call Plaid. A kid Plaid didn't know is not asked about again for a while, and fetches of
+    // new kids are spaced out globally so a flood of random kids can't spend our Plaid rate limit.
+    private static final Duration UNKNOWN_KEY_TTL = Duration.ofMinutes(10);
+    private static final long MIN_FETCH_INTERVAL_NANOS = Duration.ofSeconds(1).toNanos();
+
+    private final PlaidApi plaidApi;
+    private final boolean simulated;
+    // Plaid rotates keys rarely; a kid we haven't seen is fetched once
+    private final Cache<String, JWKPublicKey> keys = Caffeine.newBuilder()
+            .maximumSize(100)
+            .expireAfterWrite(Duration.ofHours(24))
+            .build();
+    private final Cache<String, Boolean> unknownKeys = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(UNKNOWN_KEY_TTL)
+            .build();
+    private final AtomicLong nextFetchNanos = new AtomicLong(System.nanoTime());
+
+    public PlaidWebhookVerifier(PlaidApi plaidApi, @Value("${plaid.environment}") String environment) {
+        this.plaidApi = plaidApi;
+        this.simulated = "simulated".equalsIgnoreCase(environment);
+    }
+
+    public boolean isAuthentic(String body, String verificationHeader) {
+        if (simulated) {
+            return true;
+        }
+        if (verificationHeader == null || verificationHeader.isBlank()) {
+            return false;
+        }
+        try {
+            Claims claims = Jwts.parserBuilder()
+                    .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                        @Override
+                        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                            if (!"ES256".equals(header.getAlgorithm())) {
+                                throw new JwtException("Unexpected webhook signature algorithm " + header.getAlgorithm());
+                            }
+                            return publicKey(header.getKeyId());
+                        }
+                    })
+                    .build()
+                    .parseClaimsJws(verificationHeader)
+                    .getBody();
+
+            if (claims.getIssuedAt() == null
+                    || claims.getIssuedAt().toInstant().isBefore(Instant.now().minus(MAX_AGE))) {
+                return false;
+            }
+            String expected = claims.get("request_body_sha256", String.class);
+            String actual = HexFormat.of().formatHex(
+                    MessageDigest.getInstance("SHA-256").digest(body.getBytes(StandardCharsets.UTF_8)));
+            return expected != null && MessageDigest.isEqual(
+                    expected.getBytes(StandardCharsets.US_ASCII), actual.getBytes(StandardCharsets.US_ASCII));
+        } catch (JwtException | IllegalArgumentException | GeneralSecurityException e) {
+            log.warn("Rejected webhook verification token: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private PublicKey publicKey(String keyId) {
+        if (keyId == null) {
+            throw new JwtException("Webhook verification token has no key id");
+        }
+        JWKPublicKey jwk = keys.get(keyId, this::fetchKey);
+        if (jwk.getExpiredAt() != null && Instant.ofEpochSecond(jwk.getExpiredAt()).isBefore(Instant.now())) {
+            throw new JwtException("Webhook verification key " + keyId + " has expired");
+        }
+        try {
+            AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+            parameters.init(new ECGenParameterSpec("secp256r1"));
+            ECPoint point = new ECPoint(
+                    new BigInteger(1, Base64.getUrlDecoder().decode(jwk.getX())),
+                    new BigInteger(1, Base64.getUrlDecoder().decode(jwk.getY())));
+            return KeyFactory.getInstance("EC").generatePublic(
+                    new ECPublicKeySpec(point, parameters.getParameterSpec(ECParameterSpec.class)));
+        } catch (GeneralSecurityException e) {
+            throw new JwtException("Invalid webhook verification key " + keyId, e);
+        }
+    }
+
+    private JWKPublicKey fetchKey(String keyId) {
+        if (unknownKeys.getIfPresent(keyId) != null) {
+            throw new JwtException("Unknown webhook verification key " + keyId);
+        }
+        long now = System.nanoTime();
+        long allowedAt = nextFetchNanos.get();
+        if (now - allowedAt < 0 || !nextFetchNanos.compareAndSet(allowedAt, now + MIN_FETCH_INTERVAL_NANOS)) {
+            // Plaid retries undelivered webhooks, so a genuine one turned away here arrives again
+            throw new JwtException("Webhook verification key fetches are rate limited");
+        }
+        try {
+            Response<WebhookVerificationKeyGetResponse> response = plaidApi
+                    .webhookVerificationKeyGet(new WebhookVerificationKeyGetRequest().keyId(keyId))
+                    .execute();
+            if (!response.isSuccessful() || response.body() == null) {
+                unknownKeys.put(keyId, Boolean.TRUE);
+                throw new JwtException("Unknown webhook verification key " + keyId);
+            }
+            return response.body().getKey();
+        } catch (IOException e) {
+            throw new JwtException("Could not fetch webhook verification key " + keyId, e);
+        }
+    }
+}
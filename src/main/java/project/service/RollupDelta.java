@@ -0,0 +1,64 @@
+package project.service;
+
+import project.model.MonthlyRollup;
+import project.model.TransactionCategory;
+import project.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Collects rollup changes for a unit of work so each rollup row is written once.
+// Changes are kept in key order, so every writer upserts (and row-locks) rollup rows in the same
+// order and concurrent syncs, imports and transfers can't deadlock on them.
+public class RollupDelta {
+    record Key(Long userId, Long accountId, String yearMonth, TransactionType type, String category) {
+        static final Comparator<Key> ORDER = Comparator.comparing(Key::userId)
+                .thenComparing(Key::accountId)
+                .thenComparing(Key::yearMonth)
+                .thenComparing(Key::type)
+                .thenComparing(Key::category);
+    }
+
+    static final class Change {
+        BigDecimal amount = BigDecimal.ZERO;
+        long count;
+    }
+
+    private final Map<Key, Change> changes = new TreeMap<>(Key.ORDER);
+
+    public RollupDelta add(Long userId, Long accountId, LocalDateTime date,
+                           TransactionType type, TransactionCategory category, BigDecimal amount) {
+        return apply(userId, accountId, date, type, category, amount, 1);
+    }
+
+    public RollupDelta subtract(Long userId, Long accountId, LocalDateTime date,
+                                TransactionType type, TransactionCategory category, BigDecimal amount) {
+        return apply(userId, accountId, date, type, category, amount, -1);
+    }
+
+    private RollupDelta apply(Long userId, Long accountId, LocalDateTime date,
+                              TransactionType type, TransactionCategory category, BigDecimal amount, int sign) {
+        // Rows the rebuild query would also leave out
+        if (type == null || amount == null || date == null) {
+            return this;
+        }
+        Key key = new Key(userId, accountId, YearMonth.from(date).toString(), type,
+                category != null ? category.name() : MonthlyRollup.UNCATEGORIZED);
+        Change change = changes.computeIfAbsent(key, k -> new Change());
+        change.amount = sign > 0 ? change.amount.add(amount) : change.amount.subtract(amount);
+        change.count += sign;
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    Map<Key, Change> changes() {
+        return changes;
+    }
+}
@@ -0,0 +1,85 @@
+package project.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.model.Transaction;
+import project.repository.MonthlyRollupRepository;
+import project.repository.UserRepository;
+
+import java.math.BigDecimal;
+
+// Maintains the monthly_rollups table that the analytics endpoints read from
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RollupService {
+    private final MonthlyRollupRepository rollupRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${application.rollups.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    // Must be called inside the transaction that wrote the transactions
+    public void apply(RollupDelta delta) {
+        delta.changes().forEach((key, change) -> {
+            if (change.count == 0 && change.amount.compareTo(BigDecimal.ZERO) == 0) {
+                return;
+            }
+            rollupRepository.applyDelta(key.userId(), key.accountId(), key.yearMonth(),
+                    key.type().name(), key.category(), change.amount, change.count);
+        });
+    }
+
+    // Convenience for writes of saved transactions; several are applied as one ordered delta
+    public void recordCreated(Transaction... transactions) {
+        RollupDelta delta = new RollupDelta();
+        for (Transaction transaction : transactions) {
+            delta.add(
+                    transaction.getAccount().getUser().getId(),
+                    transaction.getAccount().getId(),
+                    transaction.getTransactionDate(),
+                    transaction.getType(),
+                    transaction.getCategory(),
+                    transaction.getAmount());
+        }
+        apply(delta);
+    }
+
+    // Recomputes one user's rollups from scratch in a single transaction
+    public void rebuildForUser(Long userId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            rollupRepository.deleteByUserId(userId);
+            int rows = rollupRepository.rebuildForUser(userId);
+            log.debug("Rebuilt {} rollup rows for user {}", rows, userId);
+        });
+    }
+
+    // Backfill for every user, one transaction per user.
+    // Run it while the sync sweep is idle; writes that land mid-rebuild of a user are picked up on the next run.
+    public void rebuildAll() {
+        long start = System.currentTimeMillis();
+        int users = 0;
+        for (Long userId : userRepository.findAllIds()) {
+            try {
+                rebuildForUser(userId);
+                users++;
+            } catch (Exception e) {
+                log.error("Error rebuilding rollups for user {}: {}", userId, e.getMessage());
+            }
+        }
+        log.info("Rebuilt rollups for {} users in {} ms", users, System.currentTimeMillis() - start);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            rebuildAll();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package project.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+// Weighted Space-Saving heavy-hitters sketch. Tracks at most `capacity` keys; when a new key arrives
+// with the table full it takes over the smallest counter and inherits its count as error.
+// Any key whose true weight exceeds total/capacity is guaranteed to be tracked.
+final class SpaceSavingTopK<K> {
+    static final class Counter<K> {
+        private final long seq;
+        private K key;
+        private double weight;
+        private double error;
+
+        private Counter(long seq) {
+            this.seq = seq;
+        }
+
+        K key() {
+            return key;
+        }
+
+        double weight() {
+            return weight;
+        }
+
+        // Upper bound on how much of weight() may belong to keys this counter replaced
+        double error() {
+            return error;
+        }
+    }
+
+    private static final Comparator<Counter<?>> BY_WEIGHT =
+            Comparator.<Counter<?>>comparingDouble(c -> c.weight).thenComparingLong(c -> c.seq);
+
+    private final int capacity;
+    private final Map<K, Counter<K>> counters = new HashMap<>();
+    private final TreeSet<Counter<K>> ordered = new TreeSet<>(BY_WEIGHT);
+    private long nextSeq;
+
+    SpaceSavingTopK(int capacity) {
+        this.capacity = capacity;
+    }
+
+    void add(K key, double weight) {
+        Counter<K> counter = counters.get(key);
+        if (counter == null) {
+            if (counters.size() < capacity) {
+                counter = new Counter<>(nextSeq++);
+            } else {
+                counter = ordered.pollFirst();
+                counters.remove(counter.key);
+                counter.error = counter.weight;
+            }
+            counter.key = key;
+            counters.put(key, counter);
+        } else {
+            ordered.remove(counter);
+        }
+        counter.weight += weight;
+        ordered.add(counter);
+    }
+
+    int size() {
+        return counters.size();
+    }
+
+    // Heaviest first
+    List<Counter<K>> top(int k) {
+        List<Counter<K>> result = new ArrayList<>(Math.min(k, ordered.size()));
+        for (Counter<K> counter : ordered.descendingSet()) {
+            if (result.size() == k) {
+                break;
+            }
+            result.add(counter);
+        }
+        return result;
+    }
+}
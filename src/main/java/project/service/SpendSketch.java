@@ -0,0 +1,82 @@
+package project.service;
+
+import com.tdunning.math.stats.TDigest;
+import project.config.SketchProperties;
+import project.dto.AmountPercentiles;
+import project.dto.MerchantEstimate;
+import project.dto.SpendSketchSummary;
+import project.model.TransactionCategory;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Merchant top-K, distinct merchants and per-category amount digests over a stream of expenses.
+// Memory is fixed by SketchProperties, whatever the number of expenses added.
+// Not thread-safe while being built; after seal() it is only read and may be shared.
+final class SpendSketch {
+    private final SpaceSavingTopK<String> merchants;
+    private final HyperLogLog distinctMerchants;
+    private final Map<TransactionCategory, TDigest> amounts = new EnumMap<>(TransactionCategory.class);
+    private final double compression;
+    private final LocalDateTime builtAt = LocalDateTime.now();
+    private long expenseCount;
+
+    SpendSketch(SketchProperties properties) {
+        this.merchants = new SpaceSavingTopK<>(properties.getTopKCapacity());
+        this.distinctMerchants = new HyperLogLog(properties.getHllPrecision());
+        this.compression = properties.getDigestCompression();
+    }
+
+    void add(String merchant, TransactionCategory category, BigDecimal amount) {
+        expenseCount++;
+        if (merchant != null && !merchant.isBlank()) {
+            merchants.add(merchant, amount.doubleValue());
+            distinctMerchants.add(merchant);
+        }
+        if (category != null) {
+            amounts.computeIfAbsent(category, c -> TDigest.createMergingDigest(compression))
+                    .add(amount.doubleValue());
+        }
+    }
+
+    // Merges buffered digest inputs so later reads don't mutate the sketch
+    void seal() {
+        amounts.values().forEach(TDigest::compress);
+    }
+
+    // Rough heap footprint, used as the cache weight
+    int estimatedBytes() {
+        int bytes = distinctMerchants.byteSize() + 128 * merchants.size();
+        for (TDigest digest : amounts.values()) {
+            bytes += digest.byteSize();
+        }
+        return bytes;
+    }
+
+    SpendSketchSummary summarize(int top) {
+        SpendSketchSummary summary = new SpendSketchSummary();
+        summary.setTopMerchants(merchants.top(top).stream()
+                .map(c -> new MerchantEstimate(c.key(), money(c.weight()), money(c.error())))
+                .toList());
+        summary.setDistinctMerchants(distinctMerchants.estimate());
+
+        Map<TransactionCategory, AmountPercentiles> percentiles = new EnumMap<>(TransactionCategory.class);
+        amounts.forEach((category, digest) -> percentiles.put(category, new AmountPercentiles(
+                digest.size(),
+                money(digest.quantile(0.5)),
+                money(digest.quantile(0.9)),
+                money(digest.quantile(0.99)))));
+        summary.setCategoryPercentiles(percentiles);
+        summary.setExpenseCount(expenseCount);
+        summary.setBuiltAt(builtAt);
+        return summary;
+    }
+
+    private static BigDecimal money(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+}
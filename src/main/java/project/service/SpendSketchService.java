@@ -0,0 +1,125 @@
+package project.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.config.SketchProperties;
+import project.dto.SpendSketchSummary;
+import project.exception.InvalidTransactionDataException;
+import project.model.TransactionCategory;
+import project.model.TransactionType;
+import project.repository.TransactionRepository;
+import project.repository.UserRepository;
+
+import java.math.BigDecimal;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Serves merchant top-K, distinct-merchant and amount-percentile sketches per user and platform-wide.
+// Sketches are built in one streaming pass, so memory stays fixed however long the history is.
+// Per-user sketches are dropped when the user's transactions change and rebuilt on next use;
+// the platform-wide sketch is rebuilt on a schedule. The per-user cache is bounded by estimated heap size,
+// since a user with a long tail of merchants and categories weighs far more than a new one.
+@Service
+@Slf4j
+public class SpendSketchService {
+    private final TransactionRepository transactionRepository;
+    private final UserRepository userRepository;
+    private final SketchProperties properties;
+    private final AnalyticsMetrics analyticsMetrics;
+    private final TransactionTemplate readOnly;
+    private final Cache<String, SpendSketch> userSketches;
+    private volatile SpendSketch platformSketch;
+
+    public SpendSketchService(TransactionRepository transactionRepository,
+                              UserRepository userRepository,
+                              SketchProperties properties,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              AnalyticsMetrics analyticsMetrics) {
+        this.transactionRepository = transactionRepository;
+        this.userRepository = userRepository;
+        this.properties = properties;
+        this.analyticsMetrics = analyticsMetrics;
+        // The Postgres driver only streams with a fetch size inside a transaction
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.userSketches = Caffeine.newBuilder()
+                .maximumWeight(properties.getUserCacheMaxBytes())
+                .weigher((String email, SpendSketch sketch) -> sketch.estimatedBytes())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, userSketches, "spendSketches");
+    }
+
+    public SpendSketchSummary getUserSummary(String userEmail, int top) {
+        checkTop(top);
+        return analyticsMetrics.record("sketches.user",
+                () -> userSketches.get(userEmail, this::buildForUser).summarize(top));
+    }
+
+    public SpendSketchSummary getPlatformSummary(int top) {
+        checkTop(top);
+        return analyticsMetrics.record("sketches.platform", () -> {
+            SpendSketch sketch = platformSketch;
+            if (sketch == null) {
+                sketch = rebuildPlatformIfMissing();
+            }
+            return sketch.summarize(top);
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${application.sketches.platform-rebuild-interval:6h}",
+            initialDelayString = "${application.sketches.platform-rebuild-interval:6h}")
+    public void rebuildPlatform() {
+        long start = System.currentTimeMillis();
+        SpendSketch sketch = build(() -> transactionRepository.streamSketchRows(TransactionType.EXPENSE));
+        platformSketch = sketch;
+        log.info("Rebuilt platform spend sketches in {} ms ({} bytes)",
+                System.currentTimeMillis() - start, sketch.estimatedBytes());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransactionDataChanged(TransactionDataChangedEvent event) {
+        userRepository.findById(event.userId())
+                .ifPresent(user -> userSketches.invalidate(user.getEmail()));
+    }
+
+    // Concurrent first requests wait for one build instead of each scanning the table
+    private synchronized SpendSketch rebuildPlatformIfMissing() {
+        if (platformSketch == null) {
+            rebuildPlatform();
+        }
+        return platformSketch;
+    }
+
+    private SpendSketch buildForUser(String userEmail) {
+        return build(() -> transactionRepository.streamSketchRowsByUserEmail(userEmail, TransactionType.EXPENSE));
+    }
+
+    private SpendSketch build(Supplier<Stream<Object[]>> rows) {
+        return readOnly.execute(status -> {
+            SpendSketch sketch = new SpendSketch(properties);
+            try (Stream<Object[]> stream = rows.get()) {
+                stream.forEach(row -> sketch.add(
+                        (String) row[0], (TransactionCategory) row[1], (BigDecimal) row[2]));
+            }
+            sketch.seal();
+            return sketch;
+        });
+    }
+
+    private void checkTop(int top) {
+        if (top < 1 || top > properties.getTopKCapacity()) {
+            throw new InvalidTransactionDataException(
+                    "top must be between 1 and " + properties.getTopKCapacity());
+        }
+    }
+}
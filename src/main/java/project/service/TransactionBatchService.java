@@ -0,0 +1,199 @@
+package project.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import project.dto.AccountBalanceRow;
+import project.dto.BatchItemError;
+import project.dto.BatchMode;
+import project.dto.BatchTransactionRequest;
+import project.dto.BatchTransactionResult;
+import project.dto.TransactionDTO;
+import project.exception.InvalidTransactionDataException;
+import project.model.Transaction;
+import project.model.TransactionType;
+import project.repository.AccountBalanceRepository;
+import project.repository.AccountRepository;
+import project.repository.TransactionBatchRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+// Bulk import of manual transactions: one validation pass, one locking query for every referenced
+// account, one net balance update per account and batched inserts
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionBatchService {
+    static final int MAX_BATCH_SIZE = 10_000;
+
+    private final TransactionValidationService validationService;
+    private final TransactionBatchRepository transactionBatchRepository;
+    private final AccountRepository accountRepository;
+    private final AccountBalanceRepository accountBalanceRepository;
+    private final RollupService rollupService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public BatchTransactionResult createTransactions(String userEmail, BatchTransactionRequest request) {
+        List<TransactionDTO> items = request.getTransactions();
+        if (items == null || items.isEmpty()) {
+            throw new InvalidTransactionDataException("Batch contains no transactions");
+        }
+        if (items.size() > MAX_BATCH_SIZE) {
+            throw new InvalidTransactionDataException("Batch exceeds " + MAX_BATCH_SIZE + " transactions");
+        }
+        BatchMode mode = request.getMode() != null ? request.getMode() : BatchMode.ALL_OR_NOTHING;
+        long start = System.currentTimeMillis();
+
+        // Field validation, no database access
+        List<BatchItemError> errors = new ArrayList<>();
+        boolean[] valid = new boolean[items.size()];
+        TreeSet<Long> accountIds = new TreeSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            TransactionDTO dto = items.get(i);
+            if (dto == null) {
+                errors.add(new BatchItemError(i, "Transaction is required"));
+                continue;
+            }
+            try {
+                validationService.validateTransactionDTO(dto);
+            } catch (IllegalArgumentException e) {
+                errors.add(new BatchItemError(i, e.getMessage()));
+                continue;
+            }
+            valid[i] = true;
+            accountIds.add(dto.getAccountId());
+            if (dto.getType() == TransactionType.TRANSFER) {
+                accountIds.add(dto.getTargetAccountId());
+            }
+        }
+
+        // Every referenced account the user owns is resolved and locked by one query, so the balances
+        // below can't change underneath us before commit. Other users' accounts are never locked.
+        Map<Long, AccountBalanceRow> accounts = transactionBatchRepository.lockAccounts(userEmail, accountIds);
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        accounts.forEach((id, row) -> balances.put(id, row.getBalance() != null ? row.getBalance() : BigDecimal.ZERO));
+
+        // Replay the rows in request order against running balances, the same way
+        // the equivalent sequence of single-row requests would have been applied
+        Map<Long, BigDecimal> deltas = new TreeMap<>();
+        List<Transaction> rows = new ArrayList<>();
+        RollupDelta rollups = new RollupDelta();
+        LocalDateTime now = LocalDateTime.now();
+        int accepted = 0;
+        for (int i = 0; i < items.size(); i++) {
+            if (!valid[i]) {
+                continue;
+            }
+            TransactionDTO dto = items.get(i);
+            String error = checkItem(dto, accounts, balances);
+            if (error != null) {
+                errors.add(new BatchItemError(i, error));
+                continue;
+            }
+            accepted++;
+
+            AccountBalanceRow source = accounts.get(dto.getAccountId());
+            BigDecimal amount = dto.getAmount();
+            if (dto.getType() == TransactionType.TRANSFER) {
+                AccountBalanceRow target = accounts.get(dto.getTargetAccountId());
+                move(balances, deltas, source.getAccountId(), amount.negate());
+                move(balances, deltas, target.getAccountId(), amount);
+                rows.add(transferLeg(dto, target, amount, "Transfer from account " + source.getAccountId(), now));
+                rows.add(transferLeg(dto, source, amount.negate(), "Transfer to account " + target.getAccountId(), now));
+                rollups.add(target.getUserId(), target.getAccountId(), dto.getTransactionDate(),
+                        TransactionType.TRANSFER, null, amount);
+                rollups.add(source.getUserId(), source.getAccountId(), dto.getTransactionDate(),
+                        TransactionType.TRANSFER, null, amount.negate());
+            } else {
+                move(balances, deltas, source.getAccountId(),
+                        dto.getType() == TransactionType.INCOME ? amount : amount.negate());
+                rows.add(toTransaction(dto, source, now));
+                rollups.add(source.getUserId(), source.getAccountId(), dto.getTransactionDate(),
+                        dto.getType(), dto.getCategory(), amount);
+            }
+        }
+        errors.sort((a, b) -> Integer.compare(a.index(), b.index()));
+
+        if (accepted == 0 || (mode == BatchMode.ALL_OR_NOTHING && !errors.isEmpty())) {
+            return new BatchTransactionResult(mode, false, 0, errors.size(), errors);
+        }
+
+        // One UPDATE per account, in id order like the locks
+        deltas.forEach((accountId, delta) -> {
+            if (delta.signum() != 0) {
+                accountBalanceRepository.adjustBalance(accountId, delta, now);
+            }
+        });
+        transactionBatchRepository.insertTransactions(rows);
+        rollupService.apply(rollups);
+        deltas.keySet().stream()
+                .map(accountId -> accounts.get(accountId).getUserId())
+                .distinct()
+                .forEach(userId -> eventPublisher.publishEvent(new TransactionDataChangedEvent(userId)));
+
+        log.info("Imported {} of {} transactions for {} accounts in {} ms",
+                accepted, items.size(), deltas.size(), System.currentTimeMillis() - start);
+        return new BatchTransactionResult(mode, true, accepted, errors.size(), errors);
+    }
+
+    // Returns why the row can't be applied, or null if it can. accounts only holds the caller's own
+    // accounts, so both ends of a transfer must belong to them, as for single transfers.
+    private String checkItem(TransactionDTO dto, Map<Long, AccountBalanceRow> accounts, Map<Long, BigDecimal> balances) {
+        AccountBalanceRow source = accounts.get(dto.getAccountId());
+        if (source == null) {
+            return "Account not found";
+        }
+        if (dto.getType() == TransactionType.TRANSFER && !accounts.containsKey(dto.getTargetAccountId())) {
+            return "Target account not found";
+        }
+        if (dto.getType() != TransactionType.INCOME
+                && balances.get(source.getAccountId()).compareTo(dto.getAmount()) < 0) {
+            return "Insufficient funds in account";
+        }
+        return null;
+    }
+
+    private void move(Map<Long, BigDecimal> balances, Map<Long, BigDecimal> deltas, Long accountId, BigDecimal amount) {
+        balances.merge(accountId, amount, BigDecimal::add);
+        deltas.merge(accountId, amount, BigDecimal::add);
+    }
+
+    private Transaction toTransaction(TransactionDTO dto, AccountBalanceRow account, LocalDateTime now) {
+        Transaction transaction = new Transaction();
+        transaction.setAccount(accountRepository.getReferenceById(account.getAccountId()));
+        transaction.setAmount(dto.getAmount());
+        transaction.setType(dto.getType());
+        transaction.setCategory(dto.getCategory());
+        transaction.setDescription(dto.getDescription());
+        transaction.setMerchant(dto.getMerchant());
+        transaction.setTransactionDate(dto.getTransactionDate());
+        transaction.setCreatedAt(now);
+        transaction.setUpdatedAt(now);
+        transaction.setPending(true);
+        return transaction;
+    }
+
+    private Transaction transferLeg(TransactionDTO dto, AccountBalanceRow account, BigDecimal amount,
+                                    String description, LocalDateTime now) {
+        Transaction transaction = new Transaction();
+        transaction.setAccount(accountRepository.getReferenceById(account.getAccountId()));
+        transaction.setAmount(amount);
+        transaction.setType(TransactionType.TRANSFER);
+        transaction.setDescription(description);
+        transaction.setTransactionDate(dto.getTransactionDate());
+        transaction.setCreatedAt(now);
+        transaction.setUpdatedAt(now);
+        transaction.setPending(true);
+        return transaction;
+    }
+}
@@ -0,0 +1,66 @@
+package project.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.repository.TransactionRepository;
+
+import java.util.stream.Stream;
+
+// Per-user columnar snapshots for the analytics endpoints, bounded by estimated heap size (LRU-ish
+// eviction via Caffeine's window TinyLFU). A snapshot is built on first use and dropped when the
+// user's transactions change; the next read rebuilds it from one projection query.
+@Service
+@Slf4j
+public class TransactionColumnCache {
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate readOnly;
+    private final Cache<String, TransactionColumns> cache;
+
+    public TransactionColumnCache(TransactionRepository transactionRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${application.cache.transaction-columns.max-bytes:268435456}") long maxBytes) {
+        this.transactionRepository = transactionRepository;
+        // The Postgres driver only streams with a fetch size inside a transaction
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String email, TransactionColumns columns) ->
+                        (int) Math.min(Integer.MAX_VALUE, columns.estimatedBytes()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "transactionColumns");
+    }
+
+    TransactionColumns get(String userEmail) {
+        return cache.get(userEmail, this::load);
+    }
+
+    // Called by AnalyticsResultCache after a commit, before it bumps the user's version, so no result
+    // can be computed under the new version from the old snapshot. A load racing with this eviction
+    // either started after the commit and sees the new rows, or is still running and gets removed
+    // once it finishes.
+    void invalidate(String userEmail) {
+        cache.invalidate(userEmail);
+    }
+
+    private TransactionColumns load(String userEmail) {
+        long start = System.currentTimeMillis();
+        TransactionColumns columns = readOnly.execute(status -> {
+            try (Stream<Object[]> rows = transactionRepository.streamColumnRowsByUserEmail(userEmail)) {
+                return TransactionColumns.of(rows);
+            }
+        });
+        log.debug("Built columnar snapshot of {} transactions in {} ms",
+                columns.size(), System.currentTimeMillis() - start);
+        return columns;
+    }
+}
@@ -0,0 +1,151 @@
+package project.service;
+
+import project.model.TransactionCategory;
+import project.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// Immutable column-oriented snapshot of one user's transactions, sorted by date.
+// Amounts are held in minor units and enums by ordinal (NONE for null), so aggregations
+// are primitive loops over a contiguous date range instead of walks over entities.
+final class TransactionColumns {
+    static final byte NONE = -1;
+
+    private static final int INCOME = TransactionType.INCOME.ordinal();
+    private static final int EXPENSE = TransactionType.EXPENSE.ordinal();
+
+    private final int size;
+    private final int[] epochDay;
+    private final long[] amountMinor;
+    private final byte[] type;
+    private final byte[] category;
+    private final int[] merchant;        // index into merchantNames, -1 for none
+    private final String[] merchantNames;
+
+    private TransactionColumns(int size, int[] epochDay, long[] amountMinor, byte[] type, byte[] category,
+                               int[] merchant, String[] merchantNames) {
+        this.size = size;
+        this.epochDay = epochDay;
+        this.amountMinor = amountMinor;
+        this.type = type;
+        this.category = category;
+        this.merchant = merchant;
+        this.merchantNames = merchantNames;
+    }
+
+    // Rows are (transactionDate, amount, type, category, merchant), ordered by transactionDate.
+    // Each row is packed as it arrives, so only the primitive columns are ever held, never the row list.
+    static TransactionColumns of(Stream<Object[]> rows) {
+        Builder builder = new Builder();
+        rows.forEach(builder::add);
+        return builder.build();
+    }
+
+    private static final class Builder {
+        private int size;
+        private int[] epochDay = new int[64];
+        private long[] amountMinor = new long[64];
+        private byte[] type = new byte[64];
+        private byte[] category = new byte[64];
+        private int[] merchant = new int[64];
+        private final Map<String, Integer> merchantIds = new HashMap<>();
+
+        void add(Object[] row) {
+            if (size == epochDay.length) {
+                int capacity = size + (size >> 1);
+                epochDay = Arrays.copyOf(epochDay, capacity);
+                amountMinor = Arrays.copyOf(amountMinor, capacity);
+                type = Arrays.copyOf(type, capacity);
+                category = Arrays.copyOf(category, capacity);
+                merchant = Arrays.copyOf(merchant, capacity);
+            }
+            epochDay[size] = (int) ((LocalDateTime) row[0]).toLocalDate().toEpochDay();
+            amountMinor[size] = toMinor((BigDecimal) row[1]);
+            type[size] = (byte) ((TransactionType) row[2]).ordinal();
+            category[size] = row[3] != null ? (byte) ((TransactionCategory) row[3]).ordinal() : NONE;
+            merchant[size] = row[4] != null
+                    ? merchantIds.computeIfAbsent((String) row[4], k -> merchantIds.size())
+                    : -1;
+            size++;
+        }
+
+        // Trimmed to size so the cache weight matches what is actually retained
+        TransactionColumns build() {
+            String[] merchantNames = new String[merchantIds.size()];
+            merchantIds.forEach((name, id) -> merchantNames[id] = name);
+            return new TransactionColumns(size, Arrays.copyOf(epochDay, size), Arrays.copyOf(amountMinor, size),
+                    Arrays.copyOf(type, size), Arrays.copyOf(category, size), Arrays.copyOf(merchant, size),
+                    merchantNames);
+        }
+    }
+
+    static long toMinor(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    static BigDecimal fromMinor(long amountMinor) {
+        return BigDecimal.valueOf(amountMinor, 2);
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Rough heap footprint, used as the cache weight
+    long estimatedBytes() {
+        long bytes = 128 + (long) size * (4 + 8 + 1 + 1 + 4);
+        for (String name : merchantNames) {
+            bytes += 56 + 2L * name.length();
+        }
+        return bytes;
+    }
+
+    // First row on or after the given day
+    private int lowerBound(long day) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (epochDay[mid] < day) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // Income, expense and per-category expense totals for days in [fromDay, toDay).
+    // Merchant totals are only accumulated when asked for, by index here and by name once at the end.
+    TransactionTotals aggregate(long fromDay, long toDay, boolean withMerchants) {
+        TransactionTotals totals = new TransactionTotals();
+        long[] byMerchant = new long[withMerchants ? merchantNames.length : 0];
+        boolean[] merchantSeen = new boolean[byMerchant.length];
+        int end = lowerBound(toDay);
+        for (int i = lowerBound(fromDay); i < end; i++) {
+            long amount = amountMinor[i];
+            if (type[i] == INCOME) {
+                totals.addIncome(amount);
+            } else if (type[i] == EXPENSE) {
+                totals.addExpense(amount, category[i]);
+                int m = merchant[i];
+                if (withMerchants && m >= 0) {
+                    byMerchant[m] += amount;
+                    merchantSeen[m] = true;
+                }
+            }
+        }
+        for (int m = 0; m < byMerchant.length; m++) {
+            if (merchantSeen[m]) {
+                totals.addMerchantExpense(merchantNames[m], byMerchant[m]);
+            }
+        }
+        return totals;
+    }
+}
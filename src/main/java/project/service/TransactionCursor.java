@@ -0,0 +1,41 @@
+package project.service;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import project.exception.InvalidTransactionDataException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Opaque cursor for (transactionDate, id) keyset pagination
+final class TransactionCursor {
+    private static final String SEPARATOR = "|";
+
+    private TransactionCursor() {
+    }
+
+    static KeysetScrollPosition decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int split = raw.lastIndexOf(SEPARATOR);
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put("transactionDate", LocalDateTime.parse(raw.substring(0, split)));
+            keys.put("id", Long.parseLong(raw.substring(split + 1)));
+            return ScrollPosition.forward(keys);
+        } catch (RuntimeException e) {
+            throw new InvalidTransactionDataException("Invalid cursor", e);
+        }
+    }
+
+    static String encode(ScrollPosition position) {
+        Map<String, Object> keys = ((KeysetScrollPosition) position).getKeys();
+        String raw = keys.get("transactionDate") + SEPARATOR + keys.get("id");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,6 @@
+package project.service;
+
+// Published inside any transaction that inserts, modifies or removes a user's transactions.
+// Listeners that cache derived data react after commit.
+public record TransactionDataChangedEvent(Long userId) {
+}
@@ -0,0 +1,182 @@
+package project.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import project.dto.ExportFormat;
+import project.exception.ExportCapacityExceededException;
+import project.model.Transaction;
+import project.repository.TransactionRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+// Writes a user's full history straight from a database cursor to the response,
+// so memory use doesn't depend on how many transactions are exported.
+// Each export holds a connection and a long-running cursor for its whole duration, so only a few
+// run at once; further requests are turned away with 429 instead of queuing for the pool.
+@Service
+public class TransactionExportService {
+    private static final String CSV_HEADER =
+            "id,accountId,transactionDate,amount,type,category,merchant,description,pending";
+    private static final int FLUSH_EVERY = 1000;
+    private static final String EXPORT_SLOT = TransactionExportService.class.getName() + ".slot";
+
+    private final TransactionRepository transactionRepository;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final Semaphore slots;
+
+    public TransactionExportService(TransactionRepository transactionRepository,
+                                    EntityManager entityManager,
+                                    PlatformTransactionManager transactionManager,
+                                    ObjectMapper objectMapper,
+                                    @Value("${application.export.max-concurrent:4}") int maxConcurrent) {
+        this.transactionRepository = transactionRepository;
+        this.entityManager = entityManager;
+        this.transactionManager = transactionManager;
+        this.objectMapper = objectMapper;
+        this.slots = new Semaphore(maxConcurrent);
+    }
+
+    // Claims a slot before the response is committed, so a full house still gets a proper 429.
+    // The slot is released once, by whichever comes first: the body finishing, or the request's async
+    // processing completing. The latter also covers timeouts, errors and clients that disconnect
+    // before the body ever runs.
+    public StreamingResponseBody prepareExport(String userEmail, ExportFormat format, WebRequest request) {
+        if (!slots.tryAcquire()) {
+            throw new ExportCapacityExceededException("Too many exports in progress, try again later");
+        }
+        AtomicBoolean held = new AtomicBoolean(true);
+        Runnable release = () -> {
+            if (held.compareAndSet(true, false)) {
+                slots.release();
+            }
+        };
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(EXPORT_SLOT,
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+                        release.run();
+                    }
+                });
+        return out -> {
+            try {
+                export(userEmail, format, out);
+            } finally {
+                release.run();
+            }
+        };
+    }
+
+    private void export(String userEmail, ExportFormat format, OutputStream out) {
+        // The Postgres driver only streams with a fetch size inside a transaction
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        readOnly.executeWithoutResult(status -> {
+            try (Stream<Transaction> transactions = transactionRepository.streamByUserEmail(userEmail)) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                if (format == ExportFormat.CSV) {
+                    writeCsv(transactions, writer);
+                } else {
+                    writeNdjson(transactions, writer);
+                }
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error writing transaction export", e);
+            }
+        });
+    }
+
+    private void writeNdjson(Stream<Transaction> transactions, Writer writer) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+        int[] written = {0};
+        for (Transaction t : (Iterable<Transaction>) transactions::iterator) {
+            generator.writeStartObject();
+            generator.writeNumberField("id", t.getId());
+            generator.writeNumberField("accountId", t.getAccount().getId());
+            generator.writeStringField("transactionDate", t.getTransactionDate() != null ? t.getTransactionDate().toString() : null);
+            generator.writeNumberField("amount", t.getAmount());
+            generator.writeStringField("type", t.getType() != null ? t.getType().name() : null);
+            generator.writeStringField("category", t.getCategory() != null ? t.getCategory().name() : null);
+            generator.writeStringField("merchant", t.getMerchant());
+            generator.writeStringField("description", t.getDescription());
+            generator.writeObjectField("pending", t.getPending());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            afterRow(t, generator::flush, ++written[0]);
+        }
+        generator.flush();
+    }
+
+    private void writeCsv(Stream<Transaction> transactions, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        int written = 0;
+        for (Transaction t : (Iterable<Transaction>) transactions::iterator) {
+            writer.write(String.valueOf(t.getId()));
+            writer.write(',');
+            writer.write(String.valueOf(t.getAccount().getId()));
+            writer.write(',');
+            writer.write(csv(t.getTransactionDate()));
+            writer.write(',');
+            writer.write(csv(t.getAmount()));
+            writer.write(',');
+            writer.write(csv(t.getType()));
+            writer.write(',');
+            writer.write(csv(t.getCategory()));
+            writer.write(',');
+            writer.write(csv(t.getMerchant()));
+            writer.write(',');
+            writer.write(csv(t.getDescription()));
+            writer.write(',');
+            writer.write(csv(t.getPending()));
+            writer.write('\n');
+            afterRow(t, writer::flush, ++written);
+        }
+    }
+
+    // Detach each row once written so the persistence context stays empty
+    private void afterRow(Transaction t, IoAction flush, int written) throws IOException {
+        entityManager.detach(t);
+        if (written % FLUSH_EVERY == 0) {
+            flush.run();
+        }
+    }
+
+    private String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+
+    @FunctionalInterface
+    private interface IoAction {
+        void run() throws IOException;
+    }
+}
@@ -1,19 +1,27 @@
 // project/service/TransactionService.java
 package project.service;
 import project.exception.InvalidTransactionDataException;
-import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import project.dto.FinancialSummary;
 import project.dto.MonthlyAnalysis;
 import project.dto.SpendingTrends;
 import project.dto.TransactionDTO;
+import project.dto.TransactionPage;
+import project.dto.TransactionView;
 import project.model.Transaction;
 import project.model.Account;
+import project.model.MonthlyRollup;
 import project.model.TransactionCategory;
 import project.repository.TransactionRepository;
+import project.repository.AccountBalanceRepository;
 import project.repository.AccountRepository;
+import project.repository.MonthlyRollupRepository;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -26,22 +34,27 @@ import project.model.TransactionType;
 @Service
 @RequiredArgsConstructor
 public class TransactionService {
+    static final int MAX_PAGE_SIZE = 500;
+
     private final TransactionRepository transactionRepository;
     private final AccountRepository accountRepository;
+    private final AccountBalanceRepository accountBalanceRepository;
     private final TransactionValidationService validationService;
     private final AccountService accountService;
+    private final OwnershipService ownershipService;
+    private final RollupService rollupService;
+    private final MonthlyRollupRepository rollupRepository;
+    private final TransactionColumnCache columnCache;
+    private final AnalyticsResultCache resultCache;
+    private final ApplicationEventPublisher eventPublisher;
     @Transactional
     public Transaction createTransaction(String userEmail, TransactionDTO dto) {
 
         // Validate input
         validationService.validateTransactionDTO(dto);
-        Account account = accountRepository.findById(dto.getAccountId())
-                .orElseThrow(() -> new EntityNotFoundException("Account not found"));
 
         // Verify account ownership
-        if (!account.getUser().getEmail().equals(userEmail)) {
-            throw new SecurityException("Not authorized to access this account");
-        }
+        Account account = ownershipService.requireOwnedAccount(dto.getAccountId(), userEmail);
         // Handle transfer transactions
         if (dto.getType() == TransactionType.TRANSFER) {
             return handleTransferTransaction(userEmail, dto, account);
@@ -57,14 +70,13 @@ public class TransactionService {
         transaction.setCreatedAt(LocalDateTime.now());
         transaction.setUpdatedAt(LocalDateTime.now());
         transaction.setPending(true); // Set initial pending status
-        // Validate sufficient funds for expenses
-        if (dto.getType() == TransactionType.EXPENSE) {
-            validateSufficientFunds(account, dto.getAmount());
-        }
         // Update account balance
         updateAccountBalance(account, transaction);
 
-        return transactionRepository.save(transaction);
+        Transaction saved = transactionRepository.save(transaction);
+        rollupService.recordCreated(saved);
+        eventPublisher.publishEvent(new TransactionDataChangedEvent(account.getUser().getId()));
+        return saved;
     }
 
     @Transactional
@@ -73,8 +85,8 @@ public class TransactionService {
             throw new IllegalArgumentException("Target account is required for transfers");
         }
 
-        Account targetAccount = accountRepository.findById(dto.getTargetAccountId())
-                .orElseThrow(() -> new EntityNotFoundException("Target account not found"));
+        // Transfers only move money between the user's own accounts, as in the bulk import
+        Account targetAccount = ownershipService.requireOwnedAccount(dto.getTargetAccountId(), userEmail);
 
         // Create source transaction (withdrawal)
         Transaction sourceTransaction = new Transaction();
@@ -96,233 +108,208 @@ public class TransactionService {
         targetTransaction.setCreatedAt(LocalDateTime.now());
         targetTransaction.setPending(true);
 
-        // Update both account balances
-        validateSufficientFunds(sourceAccount, dto.getAmount());
-        updateAccountBalance(sourceAccount, sourceTransaction);
-        updateAccountBalance(targetAccount, targetTransaction);
-
-        transactionRepository.save(targetTransaction);
-        return transactionRepository.save(sourceTransaction);
-    }
-
-    private void validateSufficientFunds(Account account, BigDecimal amount) {
-        if (account.getBalance().compareTo(amount) < 0) {
-            throw new InvalidTransactionDataException("Insufficient funds in account");
+        // Update both account balances. Row locks are taken in ascending id order,
+        // so two opposite transfers between the same accounts cannot deadlock.
+        if (sourceAccount.getId() < targetAccount.getId()) {
+            debit(sourceAccount, dto.getAmount());
+            credit(targetAccount, dto.getAmount());
+        } else {
+            credit(targetAccount, dto.getAmount());
+            debit(sourceAccount, dto.getAmount());
         }
+
+        Transaction savedTarget = transactionRepository.save(targetTransaction);
+        Transaction savedSource = transactionRepository.save(sourceTransaction);
+        rollupService.recordCreated(savedTarget, savedSource);
+        eventPublisher.publishEvent(new TransactionDataChangedEvent(sourceAccount.getUser().getId()));
+        eventPublisher.publishEvent(new TransactionDataChangedEvent(targetAccount.getUser().getId()));
+        return savedSource;
     }
 
-    // Enhanced account balance update with validation
+    // Balances change through single conditional UPDATEs instead of read-modify-write,
+    // so concurrent writers on the same account can't lose each other's updates
     private void updateAccountBalance(Account account, Transaction transaction) {
-        BigDecimal newBalance;
         switch (transaction.getType()) {
             case INCOME:
-                newBalance = account.getBalance().add(transaction.getAmount());
+                credit(account, transaction.getAmount());
                 break;
             case EXPENSE:
-            case TRANSFER:
-                newBalance = account.getBalance().subtract(transaction.getAmount().abs());
-                if (newBalance.compareTo(BigDecimal.ZERO) < 0) {
-                    throw new InvalidTransactionDataException("Transaction would result in negative balance");
-                }
+                debit(account, transaction.getAmount());
                 break;
             default:
                 throw new IllegalArgumentException("Invalid transaction type");
         }
-        account.setBalance(newBalance);
-        accountRepository.save(account);
     }
 
-    // Get pending transactions
-    public List<Transaction> getPendingTransactions(String userEmail) {
-        return transactionRepository.findByAccountUserEmailAndPendingTrue(userEmail);
+    // Fails without touching the balance when it would go negative
+    private void debit(Account account, BigDecimal amount) {
+        if (accountBalanceRepository.debit(account.getId(), amount.abs(), LocalDateTime.now()) == 0) {
+            throw new InvalidTransactionDataException("Insufficient funds in account");
+        }
     }
 
-    // Get all transactions for a user
-    public List<Transaction> getUserTransactions(String userEmail) {
-        // Get all accounts for the user
-        List<Account> userAccounts = accountRepository.findByUserEmail(userEmail);
+    private void credit(Account account, BigDecimal amount) {
+        accountBalanceRepository.credit(account.getId(), amount.abs(), LocalDateTime.now());
+    }
 
-        // Get transactions for all accounts
-        return transactionRepository.findByAccountIn(userAccounts);
+    // Get pending transactions, one page at a time
+    @Transactional(readOnly = true)
+    public TransactionPage getPendingTransactions(String userEmail, String cursor, int limit) {
+        return toPage(transactionRepository.findByAccountUserEmailAndPendingTrueOrderByTransactionDateDescIdDesc(
+                userEmail, TransactionCursor.decode(cursor), pageLimit(limit)));
     }
 
+    // Get all transactions for a user, one page at a time
+    @Transactional(readOnly = true)
+    public TransactionPage getUserTransactions(String userEmail, String cursor, int limit) {
+        return toPage(transactionRepository.findByAccountUserEmailOrderByTransactionDateDescIdDesc(
+                userEmail, TransactionCursor.decode(cursor), pageLimit(limit)));
+    }
 
     //getTransactionById
+    @Transactional(readOnly = true)
     public Transaction getTransactionById(String userEmail, Long transactionId){
-        Transaction transaction = transactionRepository.findById(transactionId)
-                .orElseThrow(() -> new EntityNotFoundException("Transaction not found"));
-
         // Security check - verify the transaction belongs to the user
-        if (!transaction.getAccount().getUser().getEmail().equals(userEmail)) {
-            throw new SecurityException("Not authorized to access this transaction");
-        }
-
-        return transaction;
+        return ownershipService.requireOwnedTransaction(transactionId, userEmail);
     }
     // Confirm transaction (mark as not pending)
     @Transactional
     public Transaction confirmTransaction(String userEmail, Long transactionId) {
-        Transaction transaction = transactionRepository.findById(transactionId)
-                .orElseThrow(() -> new EntityNotFoundException("Transaction not found"));
-
-        if (!transaction.getAccount().getUser().getEmail().equals(userEmail)) {
-            throw new SecurityException("Not authorized to access this transaction");
-        }
+        Transaction transaction = ownershipService.requireOwnedTransaction(transactionId, userEmail);
 
         transaction.setPending(false);
         transaction.setUpdatedAt(LocalDateTime.now());
         return transactionRepository.save(transaction);
     }
 
-    // Get filtered transactions for a user
-    public List<Transaction> getUserTransactionsFiltered(String userEmail,
-                                                         LocalDateTime startDate,
-                                                         LocalDateTime endDate,
-                                                         TransactionType type,
-                                                         TransactionCategory category) {
-        List<Account> userAccounts = accountRepository.findByUserEmail(userEmail);
+    // Get filtered transactions for a user, one page at a time
+    @Transactional(readOnly = true)
+    public TransactionPage getUserTransactionsFiltered(String userEmail,
+                                                       LocalDateTime startDate,
+                                                       LocalDateTime endDate,
+                                                       TransactionType type,
+                                                       TransactionCategory category,
+                                                       String cursor,
+                                                       int limit) {
+        ScrollPosition position = TransactionCursor.decode(cursor);
+        Limit pageLimit = pageLimit(limit);
 
         if (startDate != null && endDate != null) {
-            return transactionRepository.findByAccountInAndTransactionDateBetween(
-                    userAccounts, startDate, endDate);
+            return toPage(transactionRepository
+                    .findByAccountUserEmailAndTransactionDateBetweenOrderByTransactionDateDescIdDesc(
+                            userEmail, startDate, endDate, position, pageLimit));
         } else if (type != null) {
-            return transactionRepository.findByAccountInAndType(userAccounts, type);
+            return toPage(transactionRepository.findByAccountUserEmailAndTypeOrderByTransactionDateDescIdDesc(
+                    userEmail, type, position, pageLimit));
         } else if (category != null) {
-            return transactionRepository.findByAccountInAndCategory(userAccounts, category);
+            return toPage(transactionRepository.findByAccountUserEmailAndCategoryOrderByTransactionDateDescIdDesc(
+                    userEmail, category, position, pageLimit));
         }
 
-        return transactionRepository.findByAccountIn(userAccounts);
+        return getUserTransactions(userEmail, cursor, limit);
     }
 
+    private Limit pageLimit(int limit) {
+        if (limit < 1) {
+            throw new InvalidTransactionDataException("Page size must be positive");
+        }
+        return Limit.of(Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    private TransactionPage toPage(Window<Transaction> window) {
+        String nextCursor = window.hasNext() && !window.isEmpty()
+                ? TransactionCursor.encode(window.positionAt(window.size() - 1))
+                : null;
+        List<TransactionView> items = window.getContent().stream()
+                .map(TransactionView::from)
+                .collect(Collectors.toList());
+        return new TransactionPage(items, nextCursor);
+    }
+
+    // Analytics responses are cached until the user's data changes; closed months are kept longest.
     public FinancialSummary getFinancialSummary(String userEmail) {
-        List<Account> userAccounts = accountRepository.findByUserEmail(userEmail);
-        List<Transaction> allTransactions = transactionRepository.findByAccountIn(userAccounts);
+        return resultCache.get(userEmail, "summary", null, false, () -> computeFinancialSummary(userEmail));
+    }
+
+    public MonthlyAnalysis getMonthlyAnalysis(String userEmail, YearMonth yearMonth) {
+        return resultCache.get(userEmail, "monthly", yearMonth, yearMonth.isBefore(YearMonth.now()),
+                () -> computeMonthlyAnalysis(userEmail, yearMonth));
+    }
+
+    public SpendingTrends getSpendingTrends(String userEmail) {
+        return resultCache.get(userEmail, "trends", null, false, () -> computeSpendingTrends(userEmail));
+    }
+
+    // Summary and monthly analysis run over the user's cached columnar snapshot; trends read the
+    // monthly_rollups table, so their cost grows with months of history rather than rows.
+    private FinancialSummary computeFinancialSummary(String userEmail) {
+        TransactionColumns columns = columnCache.get(userEmail);
+        TransactionTotals allTime = columns.aggregate(Long.MIN_VALUE, Long.MAX_VALUE, false);
 
         FinancialSummary summary = new FinancialSummary();
 
         // Calculate total balance across all accounts
-        BigDecimal totalBalance = userAccounts.stream()
-                .map(Account::getBalance)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // Calculate income and expenses
-        BigDecimal totalIncome = allTransactions.stream()
-                .filter(t -> t.getType() == TransactionType.INCOME)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalExpenses = allTransactions.stream()
-                .filter(t -> t.getType() == TransactionType.EXPENSE)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // Calculate category breakdown
-        Map<TransactionCategory, BigDecimal> categoryBreakdown = allTransactions.stream()
-                .filter(t -> t.getType() == TransactionType.EXPENSE)
-                .collect(Collectors.groupingBy(
-                        Transaction::getCategory,
-                        Collectors.reducing(
-                                BigDecimal.ZERO,
-                                Transaction::getAmount,
-                                BigDecimal::add
-                        )
-                ));
+        BigDecimal totalBalance = accountRepository.sumBalanceByUserEmail(userEmail);
+
+        // Income, expenses and category breakdown come from a single pass
+        Map<TransactionCategory, BigDecimal> categoryBreakdown = allTime.expenseCategories();
+
+        YearMonth currentMonth = YearMonth.now();
+        BigDecimal currentMonthSpending = columns.aggregate(
+                currentMonth.atDay(1).toEpochDay(),
+                currentMonth.plusMonths(1).atDay(1).toEpochDay(),
+                false).expenses();
 
         // Generate insights
-        List<String> insights = generateInsights(allTransactions, categoryBreakdown);
+        List<String> insights = generateInsights(currentMonthSpending, categoryBreakdown);
 
         summary.setTotalBalance(totalBalance);
-        summary.setTotalIncome(totalIncome);
-        summary.setTotalExpenses(totalExpenses);
+        summary.setTotalIncome(allTime.income());
+        summary.setTotalExpenses(allTime.expenses());
         summary.setCategoryBreakdown(categoryBreakdown);
         summary.setInsights(insights);
 
         return summary;
     }
 
-    public MonthlyAnalysis getMonthlyAnalysis(String userEmail, YearMonth yearMonth) {
-        List<Account> userAccounts = accountRepository.findByUserEmail(userEmail);
-        LocalDateTime startOfMonth = yearMonth.atDay(1).atStartOfDay();
-        LocalDateTime endOfMonth = yearMonth.atEndOfMonth().atTime(23, 59, 59);
-
-        List<Transaction> monthlyTransactions = transactionRepository
-                .findByAccountInAndTransactionDateBetween(userAccounts, startOfMonth, endOfMonth);
+    private MonthlyAnalysis computeMonthlyAnalysis(String userEmail, YearMonth yearMonth) {
+        TransactionTotals totals = columnCache.get(userEmail).aggregate(
+                yearMonth.atDay(1).toEpochDay(),
+                yearMonth.plusMonths(1).atDay(1).toEpochDay(),
+                true);
 
         MonthlyAnalysis analysis = new MonthlyAnalysis();
 
-        // Calculate monthly totals
-        BigDecimal monthlyIncome = monthlyTransactions.stream()
-                .filter(t -> t.getType() == TransactionType.INCOME)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal monthlyExpenses = monthlyTransactions.stream()
-                .filter(t -> t.getType() == TransactionType.EXPENSE)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // Calculate spending by category
-        Map<TransactionCategory, BigDecimal> spendingByCategory = monthlyTransactions.stream()
-                .filter(t -> t.getType() == TransactionType.EXPENSE)
-                .collect(Collectors.groupingBy(
-                        Transaction::getCategory,
-                        Collectors.reducing(
-                                BigDecimal.ZERO,
-                                Transaction::getAmount,
-                                BigDecimal::add
-                        )
-                ));
-
-        // Calculate top merchants
-        Map<String, BigDecimal> topMerchants = monthlyTransactions.stream()
-                .filter(t -> t.getType() == TransactionType.EXPENSE && t.getMerchant() != null)
-                .collect(Collectors.groupingBy(
-                        Transaction::getMerchant,
-                        Collectors.reducing(
-                                BigDecimal.ZERO,
-                                Transaction::getAmount,
-                                BigDecimal::add
-                        )
-                ));
+        BigDecimal monthlyIncome = totals.income();
+        BigDecimal monthlyExpenses = totals.expenses();
 
         analysis.setTotalIncome(monthlyIncome);
         analysis.setTotalExpenses(monthlyExpenses);
         analysis.setNetSavings(monthlyIncome.subtract(monthlyExpenses));
-        analysis.setSpendingByCategory(spendingByCategory);
-        analysis.setTopMerchants(topMerchants);
+        analysis.setSpendingByCategory(totals.expenseCategories());
+        analysis.setTopMerchants(totals.expenseMerchants());
 
         return analysis;
     }
 
-    public SpendingTrends getSpendingTrends(String userEmail) {
-        List<Account> userAccounts = accountRepository.findByUserEmail(userEmail);
-        List<Transaction> allTransactions = transactionRepository.findByAccountIn(userAccounts);
+    private SpendingTrends computeSpendingTrends(String userEmail) {
+        List<MonthlyRollup> expenseRollups = rollupRepository.findByUserEmailAndType(userEmail, TransactionType.EXPENSE);
 
         SpendingTrends trends = new SpendingTrends();
 
         // Calculate monthly spending
-        Map<YearMonth, BigDecimal> monthlySpending = allTransactions.stream()
-                .filter(t -> t.getType() == TransactionType.EXPENSE)
+        Map<YearMonth, BigDecimal> monthlySpending = expenseRollups.stream()
                 .collect(Collectors.groupingBy(
-                        t -> YearMonth.from(t.getTransactionDate()),
+                        r -> YearMonth.parse(r.getYearMonth()),
                         Collectors.reducing(
                                 BigDecimal.ZERO,
-                                Transaction::getAmount,
+                                MonthlyRollup::getTotalAmount,
                                 BigDecimal::add
                         )
                 ));
 
         // Calculate category trends
-        Map<TransactionCategory, BigDecimal> categoryTrends = allTransactions.stream()
-                .filter(t -> t.getType() == TransactionType.EXPENSE)
-                .collect(Collectors.groupingBy(
-                        Transaction::getCategory,
-                        Collectors.reducing(
-                                BigDecimal.ZERO,
-                                Transaction::getAmount,
-                                BigDecimal::add
-                        )
-                ));
+        Map<TransactionCategory, BigDecimal> categoryTrends = categoryTotals(expenseRollups, TransactionType.EXPENSE);
 
         // Calculate percentage changes
         Map<String, Double> percentageChanges = calculatePercentageChanges(monthlySpending);
@@ -334,19 +321,26 @@ public class TransactionService {
         return trends;
     }
 
-    private List<String> generateInsights(List<Transaction> transactions,
+    // Uncategorized rows count towards totals but have no bucket in the breakdown
+    private Map<TransactionCategory, BigDecimal> categoryTotals(List<MonthlyRollup> rollups, TransactionType type) {
+        return rollups.stream()
+                .filter(r -> r.getType() == type)
+                .filter(r -> !MonthlyRollup.UNCATEGORIZED.equals(r.getCategory()))
+                .collect(Collectors.groupingBy(
+                        r -> TransactionCategory.valueOf(r.getCategory()),
+                        Collectors.reducing(
+                                BigDecimal.ZERO,
+                                MonthlyRollup::getTotalAmount,
+                                BigDecimal::add
+                        )
+                ));
+    }
+
+    private List<String> generateInsights(BigDecimal currentMonthSpending,
                                           Map<TransactionCategory, BigDecimal> categoryBreakdown) {
         List<String> insights = new ArrayList<>();
 
         // Add insights based on spending patterns
-        // Example insights:
-        YearMonth currentMonth = YearMonth.now();
-        BigDecimal currentMonthSpending = transactions.stream()
-                .filter(t -> t.getType() == TransactionType.EXPENSE)
-                .filter(t -> YearMonth.from(t.getTransactionDate()).equals(currentMonth))
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
         // Add monthly spending insight
         insights.add("Your total spending this month is " + currentMonthSpending);
 
@@ -2,23 +2,50 @@ package project.service;
 
 import com.plaid.client.model.*;
 import com.plaid.client.request.PlaidApi;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.ResponseBody;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.config.SyncProperties;
+import project.dto.SyncCandidate;
+import project.dto.SyncRunStats;
+import project.dto.TransactionRollupRow;
 import project.model.Account;
 import project.model.PlaidItem;
 import project.model.Transaction;
 import project.model.TransactionType;
+import project.monitoring.StatementScope;
 import project.repository.AccountRepository;
 import project.repository.PlaidItemRepository;
+import project.repository.TransactionBatchRepository;
 import project.repository.TransactionRepository;
+import retrofit2.Response;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -27,94 +54,308 @@ public class TransactionSyncService {
     private final PlaidApi plaidApi;
     private final PlaidItemRepository plaidItemRepository;
     private final TransactionRepository transactionRepository;
+    private final TransactionBatchRepository transactionBatchRepository;
     private final AccountRepository accountRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final SyncProperties syncProperties;
+    private final RollupService rollupService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
 
+    private volatile SyncRunStats lastRunStats;
+
+    // Plaid caps /transactions/sync pages at 500 entries
+    private static final int SYNC_PAGE_SIZE = 500;
+    private static final int MAX_PAGINATION_RESTARTS = 3;
+    private static final String MUTATION_DURING_PAGINATION = "TRANSACTIONS_SYNC_MUTATION_DURING_PAGINATION";
+
+    // Syncs every item on virtual threads, capped globally and per institution.
+    // Each item commits its own pages, so one slow or failing item never holds up the others.
     @Scheduled(fixedRate = 3600000) // Run every hour
-    @Transactional
     public void syncAllTransactions() {
-        List<PlaidItem> plaidItems = plaidItemRepository.findAll();
-        for (PlaidItem item : plaidItems) {
-            try {
-                syncTransactionsForItem(item);
-            } catch (Exception e) {
-                log.error("Error syncing transactions for item {}: {}", item.getItemId(), e.getMessage());
+        long start = System.nanoTime();
+        SyncRunStats stats = new SyncRunStats();
+        stats.setStartedAt(LocalDateTime.now());
+
+        AtomicInteger synced = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        int skipped = 0;
+
+        LocalDateTime syncedRecentlyAfter = LocalDateTime.now().minus(syncProperties.getMinInterval());
+        Map<String, Queue<SyncCandidate>> byInstitution = new LinkedHashMap<>();
+        for (SyncCandidate candidate : plaidItemRepository.findSyncCandidates()) {
+            // Items a webhook already refreshed don't need the sweep
+            if (candidate.isHasCursor() && candidate.getLastSync() != null
+                    && candidate.getLastSync().isAfter(syncedRecentlyAfter)) {
+                skipped++;
+                continue;
             }
+            byInstitution.computeIfAbsent(Objects.requireNonNullElse(candidate.getInstitutionId(), "unknown"),
+                    key -> new ConcurrentLinkedQueue<>()).add(candidate);
         }
+
+        // Each institution gets at most its cap of workers draining its own queue, and a worker only takes
+        // a global permit per item. A busy institution therefore can't sit on global permits it is not
+        // allowed to use; the fair semaphore hands freed permits round the institutions in turn.
+        Semaphore globalLimit = new Semaphore(syncProperties.getMaxConcurrency(), true);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Queue<SyncCandidate> queue : byInstitution.values()) {
+                int workers = Math.min(queue.size(), syncProperties.getPerInstitutionConcurrency());
+                for (int i = 0; i < workers; i++) {
+                    // Item statements count towards the sweep's budget
+                    executor.submit(StatementScope.propagate(() -> {
+                        SyncCandidate candidate;
+                        while ((candidate = queue.poll()) != null) {
+                            globalLimit.acquireUninterruptibly();
+                            try {
+                                PlaidItem item = plaidItemRepository.findById(candidate.getId()).orElse(null);
+                                if (item != null) {
+                                    syncTransactionsForItem(item);
+                                    synced.incrementAndGet();
+                                }
+                            } catch (Exception e) {
+                                failed.incrementAndGet();
+                                log.error("Error syncing transactions for item {}: {}",
+                                        candidate.getId(), e.getMessage());
+                            } finally {
+                                globalLimit.release();
+                            }
+                        }
+                    }));
+                }
+            }
+        } // close() waits for every worker
+
+        stats.setItemsSynced(synced.get());
+        stats.setItemsFailed(failed.get());
+        stats.setItemsSkipped(skipped);
+        stats.setFinishedAt(LocalDateTime.now());
+        stats.setWallTimeMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        lastRunStats = stats;
+        meterRegistry.timer("sync.run.duration").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        log.info("Sync run finished in {} ms: {} synced, {} failed, {} skipped",
+                stats.getWallTimeMillis(), stats.getItemsSynced(), stats.getItemsFailed(), stats.getItemsSkipped());
+    }
+
+    public SyncRunStats getLastRunStats() {
+        return lastRunStats;
     }
 
-    @Transactional
+    // Pulls the added/modified/removed deltas since the item's stored cursor.
+    // The cursor is saved together with each page, so an interrupted sync resumes
+    // from the last committed page instead of starting over. The sweep, the webhook worker and a
+    // reclaimed webhook can sync the same item at once; the item row lock taken per page makes
+    // them take turns, and a sync that finds the cursor moved under it continues from there.
     public void syncTransactionsForItem(PlaidItem item) {
+        // How stale the item's data had become; the basis for a sync freshness SLO
+        if (item.getLastSync() != null) {
+            meterRegistry.timer("sync.item.staleness")
+                    .record(Duration.between(item.getLastSync(), LocalDateTime.now()));
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
         try {
-            TransactionsGetRequest request = new TransactionsGetRequest()
-                    .accessToken(item.getAccessToken())
-                    .startDate(LocalDate.now().minusDays(30))
-                    .endDate(LocalDate.now());
-
-            TransactionsGetResponse response = plaidApi.transactionsGet(request)
-                    .execute()
-                    .body();
-
-            if (response == null) {
-                log.error("Null response from Plaid sync for item {}", item.getItemId());
-                return;
-            }
+            // committedCursor is what the item row should hold if no other sync has run since our last page
+            String committedCursor = item.getTransactionsCursor();
+            String startCursor = committedCursor;
+            String cursor = startCursor;
+            int restarts = 0;
+            boolean hasMore = true;
+
+            while (hasMore) {
+                TransactionsSyncRequest request = new TransactionsSyncRequest()
+                        .accessToken(item.getAccessToken())
+                        .count(SYNC_PAGE_SIZE);
+                if (cursor != null) {
+                    request.cursor(cursor);
+                }
+
+                Response<TransactionsSyncResponse> response = plaidApi.transactionsSync(request).execute();
 
-            List<com.plaid.client.model.Transaction> plaidTransactions = response.getTransactions();
-            processTransactions(plaidTransactions, item);
+                if (!response.isSuccessful() || response.body() == null) {
+                    String errorMessage = getErrorMessage(response);
+                    // Plaid asks us to restart pagination from the original cursor when the
+                    // item changes mid-sync. Re-applying pages is safe because upserts and
+                    // removals are idempotent.
+                    if (errorMessage.contains(MUTATION_DURING_PAGINATION) && restarts < MAX_PAGINATION_RESTARTS) {
+                        log.warn("Item {} changed during sync pagination, restarting", item.getItemId());
+                        meterRegistry.counter("sync.pagination.restarts").increment();
+                        cursor = startCursor;
+                        restarts++;
+                        continue;
+                    }
+                    log.error("Error from Plaid sync for item {}: {}", item.getItemId(), errorMessage);
+                    throw new RuntimeException("Plaid transactions sync failed: " + errorMessage);
+                }
 
-            item.setLastSync(LocalDateTime.now());
-            plaidItemRepository.save(item);
+                TransactionsSyncResponse page = response.body();
+                if (!applySyncPage(item, committedCursor, page)) {
+                    // Another sync committed pages meanwhile; this page may already be applied
+                    log.info("Item {} was synced concurrently, continuing from its stored cursor", item.getItemId());
+                    committedCursor = item.getTransactionsCursor();
+                    startCursor = committedCursor;
+                    cursor = committedCursor;
+                    continue;
+                }
+
+                committedCursor = page.getNextCursor();
+                cursor = committedCursor;
+                hasMore = Boolean.TRUE.equals(page.getHasMore());
+            }
+            outcome = "success";
 
         } catch (Exception e) {
             log.error("Error in transaction sync for item {}: {}", item.getItemId(), e.getMessage());
             throw new RuntimeException("Transaction sync failed", e);
+        } finally {
+            sample.stop(meterRegistry.timer("sync.item.duration", "outcome", outcome));
         }
     }
 
-    private void processTransactions(List<com.plaid.client.model.Transaction> plaidTransactions, PlaidItem item) {
-        for (com.plaid.client.model.Transaction plaidTx : plaidTransactions) {
-            try {
-                Transaction existingTx = transactionRepository
-                        .findByPlaidTransactionId(plaidTx.getTransactionId())
-                        .orElse(null);
-
-                if (existingTx != null) {
-                    updateTransactionFromPlaid(existingTx, plaidTx);
-                } else {
-                    Transaction newTx = createTransactionFromPlaid(plaidTx, item);
-                    if (newTx != null) {
-                        transactionRepository.save(newTx);
-                    }
-                }
-            } catch (Exception e) {
-                log.error("Error processing transaction {}: {}", plaidTx.getTransactionId(), e.getMessage());
+    // Applies one page of deltas and advances the item's cursor in a single transaction, under the
+    // item's row lock. Existing rows (and so the rollup delta) are read only after the lock is held.
+    // Returns false, applying nothing, if the stored cursor is no longer expectedCursor; item then
+    // carries the stored cursor.
+    private boolean applySyncPage(PlaidItem item, String expectedCursor, TransactionsSyncResponse page) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            PlaidItem locked = plaidItemRepository.lockById(item.getId())
+                    .orElseThrow(() -> new IllegalStateException("Plaid item " + item.getId() + " was removed"));
+            if (!Objects.equals(locked.getTransactionsCursor(), expectedCursor)) {
+                item.setTransactionsCursor(locked.getTransactionsCursor());
+                return false;
             }
+
+            // A transaction can appear in both lists; the later (modified) version wins
+            Map<String, com.plaid.client.model.Transaction> upserts = new LinkedHashMap<>();
+            page.getAdded().forEach(t -> upserts.put(t.getTransactionId(), t));
+            page.getModified().forEach(t -> upserts.put(t.getTransactionId(), t));
+            // One delta for the whole page, so its rollup rows are upserted in a single key order
+            RollupDelta rollupDelta = new RollupDelta();
+            processTransactions(new ArrayList<>(upserts.values()), item, rollupDelta);
+            removeTransactions(page.getRemoved(), rollupDelta);
+            rollupService.apply(rollupDelta);
+            eventPublisher.publishEvent(new TransactionDataChangedEvent(locked.getUser().getId()));
+
+            // The locked entity is managed, so the new cursor is flushed on commit
+            locked.setTransactionsCursor(page.getNextCursor());
+            locked.setLastSync(LocalDateTime.now());
+            item.setTransactionsCursor(locked.getTransactionsCursor());
+            item.setLastSync(locked.getLastSync());
+            return true;
+        }));
+    }
+
+    private void removeTransactions(List<RemovedTransaction> removed, RollupDelta rollupDelta) {
+        if (removed == null || removed.isEmpty()) {
+            return;
         }
+        List<String> plaidTransactionIds = removed.stream()
+                .map(RemovedTransaction::getTransactionId)
+                .collect(Collectors.toList());
+
+        for (TransactionRollupRow row : transactionRepository.findRollupRowsByPlaidTransactionIdIn(plaidTransactionIds)) {
+            rollupDelta.subtract(row.getUserId(), row.getAccountId(), row.getTransactionDate(),
+                    row.getType(), row.getCategory(), row.getAmount());
+        }
+
+        int deleted = transactionRepository.deleteByPlaidTransactionIdIn(plaidTransactionIds);
+        countRows("removed", deleted);
+        log.debug("Removed {} of {} transactions reported by Plaid", deleted, plaidTransactionIds.size());
     }
 
-    private Transaction createTransactionFromPlaid(com.plaid.client.model.Transaction plaidTx, PlaidItem item) {
-        Transaction transaction = new Transaction();
+    private String getErrorMessage(Response<?> response) {
+        if (response.errorBody() == null) {
+            return "Unknown error";
+        }
+
+        try (ResponseBody errorBody = response.errorBody()) {
+            return errorBody.string();
+        } catch (IOException e) {
+            log.error("Error reading error body", e);
+            return "Error reading error response";
+        }
+    }
+
+    // Set-based ingestion: one IN query for existing rows, one for the page's accounts,
+    // then a single batched upsert instead of a lookup and save per transaction
+    private void processTransactions(List<com.plaid.client.model.Transaction> plaidTransactions, PlaidItem item,
+                                     RollupDelta rollupDelta) {
+        if (plaidTransactions.isEmpty()) {
+            return;
+        }
+
+        Set<String> plaidTransactionIds = plaidTransactions.stream()
+                .map(com.plaid.client.model.Transaction::getTransactionId)
+                .collect(Collectors.toSet());
+        Map<String, TransactionRollupRow> existingRows = transactionRepository
+                .findRollupRowsByPlaidTransactionIdIn(plaidTransactionIds).stream()
+                .collect(Collectors.toMap(TransactionRollupRow::getPlaidTransactionId, Function.identity()));
 
-        // Find the associated account
-        Account account = accountRepository.findByPlaidAccountId(plaidTx.getAccountId())
-                .orElseThrow(() -> new RuntimeException("Account not found for plaid account ID: " + plaidTx.getAccountId()));
+        Set<String> plaidAccountIds = plaidTransactions.stream()
+                .map(com.plaid.client.model.Transaction::getAccountId)
+                .collect(Collectors.toSet());
+        Map<String, Account> accountsByPlaidId = accountRepository.findByPlaidAccountIdIn(plaidAccountIds).stream()
+                .collect(Collectors.toMap(Account::getPlaidAccountId, Function.identity()));
+
+        List<Transaction> rows = new ArrayList<>(plaidTransactions.size());
+        int updated = 0;
+        int skipped = 0;
+        for (com.plaid.client.model.Transaction plaidTx : plaidTransactions) {
+            Account account = accountsByPlaidId.get(plaidTx.getAccountId());
+            if (account == null) {
+                log.error("Error processing transaction {}: Account not found for plaid account ID: {}",
+                        plaidTx.getTransactionId(), plaidTx.getAccountId());
+                skipped++;
+                continue;
+            }
+            Transaction row = createTransactionFromPlaid(plaidTx, account);
+            rows.add(row);
 
+            TransactionRollupRow existing = existingRows.get(row.getPlaidTransactionId());
+            if (existing != null) {
+                // The upsert keeps account, type and category; only amount and date can move the row
+                updated++;
+                rollupDelta.subtract(existing.getUserId(), existing.getAccountId(), existing.getTransactionDate(),
+                        existing.getType(), existing.getCategory(), existing.getAmount());
+                rollupDelta.add(existing.getUserId(), existing.getAccountId(), row.getTransactionDate(),
+                        existing.getType(), existing.getCategory(), row.getAmount());
+            } else {
+                rollupDelta.add(account.getUser().getId(), account.getId(), row.getTransactionDate(),
+                        row.getType(), row.getCategory(), row.getAmount());
+            }
+        }
+
+        transactionBatchRepository.upsertPlaidTransactions(rows);
+
+        countRows("inserted", rows.size() - updated);
+        countRows("updated", updated);
+        countRows("skipped", skipped);
+        log.debug("Item {}: {} inserted, {} updated, {} skipped",
+                item.getItemId(), rows.size() - updated, updated, skipped);
+    }
+
+    // Counted as pages are applied; a page rolled back after this point is counted anyway
+    private void countRows(String action, int rows) {
+        if (rows > 0) {
+            meterRegistry.counter("sync.transactions", "action", action).increment(rows);
+        }
+    }
+
+    // Package-private and static so the JMH mapping benchmark can drive it without Spring
+    static Transaction createTransactionFromPlaid(com.plaid.client.model.Transaction plaidTx, Account account) {
+        Transaction transaction = new Transaction();
         transaction.setAccount(account);
         updateTransactionFieldsFromPlaid(transaction, plaidTx);
 
-        // Set default transaction type based on amount
+        // Set default transaction type based on amount (ignored when the row already exists)
         double amount = plaidTx.getAmount();
         transaction.setType(amount > 0 ? TransactionType.INCOME : TransactionType.EXPENSE);
 
         return transaction;
     }
 
-    private void updateTransactionFromPlaid(Transaction transaction, com.plaid.client.model.Transaction plaidTx) {
-        updateTransactionFieldsFromPlaid(transaction, plaidTx);
-        transactionRepository.save(transaction);
-    }
-
-    private void updateTransactionFieldsFromPlaid(Transaction transaction, com.plaid.client.model.Transaction plaidTx) {
+    private static void updateTransactionFieldsFromPlaid(Transaction transaction, com.plaid.client.model.Transaction plaidTx) {
         transaction.setPlaidTransactionId(plaidTx.getTransactionId());
         transaction.setAmount(BigDecimal.valueOf(plaidTx.getAmount()));
         transaction.setDescription(plaidTx.getName());
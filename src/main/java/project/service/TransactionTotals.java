@@ -0,0 +1,106 @@
+package project.service;
+
+import project.model.Transaction;
+import project.model.TransactionCategory;
+import project.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collector;
+
+// Income, expenses, expense-by-category and expense-by-merchant, summed in minor units.
+// Fed either one Transaction at a time through collector(), or by TransactionColumns.aggregate,
+// which has already converted amounts. Partial results merge, so the collector also runs as a
+// parallel reduction. Converting a BigDecimal amount (toMinor) still allocates; the sums don't.
+final class TransactionTotals {
+    private static final TransactionCategory[] CATEGORIES = TransactionCategory.values();
+
+    private long incomeMinor;
+    private long expenseMinor;
+    private final long[] categoryMinor = new long[CATEGORIES.length];
+    private final boolean[] categorySeen = new boolean[CATEGORIES.length];
+    private final Map<String, long[]> merchantMinor = new HashMap<>();
+
+    TransactionTotals() {
+    }
+
+    static Collector<Transaction, TransactionTotals, TransactionTotals> collector() {
+        return Collector.of(
+                TransactionTotals::new,
+                TransactionTotals::add,
+                TransactionTotals::merge,
+                Collector.Characteristics.IDENTITY_FINISH,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    void addIncome(long amountMinor) {
+        incomeMinor += amountMinor;
+    }
+
+    // category is an ordinal, or TransactionColumns.NONE for an uncategorized expense
+    void addExpense(long amountMinor, int category) {
+        expenseMinor += amountMinor;
+        if (category != TransactionColumns.NONE) {
+            categoryMinor[category] += amountMinor;
+            categorySeen[category] = true;
+        }
+    }
+
+    // Merchant breakdown of expenses already counted by addExpense
+    void addMerchantExpense(String merchant, long amountMinor) {
+        merchantMinor.computeIfAbsent(merchant, m -> new long[1])[0] += amountMinor;
+    }
+
+    private void add(Transaction t) {
+        if (t.getAmount() == null) {
+            return;
+        }
+        long amount = TransactionColumns.toMinor(t.getAmount());
+        if (t.getType() == TransactionType.INCOME) {
+            addIncome(amount);
+        } else if (t.getType() == TransactionType.EXPENSE) {
+            addExpense(amount, t.getCategory() != null ? t.getCategory().ordinal() : TransactionColumns.NONE);
+            if (t.getMerchant() != null) {
+                addMerchantExpense(t.getMerchant(), amount);
+            }
+        }
+    }
+
+    private TransactionTotals merge(TransactionTotals other) {
+        incomeMinor += other.incomeMinor;
+        expenseMinor += other.expenseMinor;
+        for (int c = 0; c < CATEGORIES.length; c++) {
+            categoryMinor[c] += other.categoryMinor[c];
+            categorySeen[c] |= other.categorySeen[c];
+        }
+        other.merchantMinor.forEach((merchant, amount) -> addMerchantExpense(merchant, amount[0]));
+        return this;
+    }
+
+    BigDecimal income() {
+        return TransactionColumns.fromMinor(incomeMinor);
+    }
+
+    BigDecimal expenses() {
+        return TransactionColumns.fromMinor(expenseMinor);
+    }
+
+    // Only categories that had at least one expense, matching the rollup-based breakdown
+    Map<TransactionCategory, BigDecimal> expenseCategories() {
+        Map<TransactionCategory, BigDecimal> result = new EnumMap<>(TransactionCategory.class);
+        for (int c = 0; c < CATEGORIES.length; c++) {
+            if (categorySeen[c]) {
+                result.put(CATEGORIES[c], TransactionColumns.fromMinor(categoryMinor[c]));
+            }
+        }
+        return result;
+    }
+
+    Map<String, BigDecimal> expenseMerchants() {
+        Map<String, BigDecimal> result = new HashMap<>();
+        merchantMinor.forEach((merchant, amount) -> result.put(merchant, TransactionColumns.fromMinor(amount[0])));
+        return result;
+    }
+}
@@ -2,7 +2,9 @@
 package project.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
+import project.config.CacheConfig;
 import project.model.User;
 import project.repository.UserRepository;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -13,6 +15,7 @@ public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
 
+    @CacheEvict(cacheNames = CacheConfig.USER_DETAILS_CACHE, key = "#user.email")
     public User createUser(User user) {
         if (userRepository.existsByEmail(user.getEmail())) {
             throw new RuntimeException("Email already exists");
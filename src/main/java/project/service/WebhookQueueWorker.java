@@ -0,0 +1,165 @@
+package project.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.config.WebhookQueueProperties;
+import project.model.PlaidItem;
+import project.model.WebhookEvent;
+import project.model.WebhookEventStatus;
+import project.monitoring.StatementScope;
+import project.repository.PlaidItemRepository;
+import project.repository.WebhookEventRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Drains webhook_events. Several app instances can poll at once: SKIP LOCKED hands each row to one worker.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WebhookQueueWorker {
+    private static final int PURGE_BATCH_SIZE = 5000;
+
+    private final WebhookEventRepository webhookEventRepository;
+    private final PlaidItemRepository plaidItemRepository;
+    private final TransactionSyncService transactionSyncService;
+    private final TransactionTemplate transactionTemplate;
+    private final WebhookQueueProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    // Stores the webhook for later processing, collapsing duplicates that are still waiting.
+    // Concurrent deliveries of the same webhook race on the unique index, not on a prior read.
+    public void enqueue(String webhookType, String webhookCode, String itemId) {
+        if (webhookEventRepository.insertPendingIfAbsent(webhookType, webhookCode, itemId, LocalDateTime.now()) == 0) {
+            log.debug("Webhook {}/{} for item {} already queued", webhookType, webhookCode, itemId);
+        }
+    }
+
+    @Scheduled(fixedDelay = 1000)
+    public void drainQueue() {
+        List<WebhookEvent> claimed = claimDueEvents();
+        if (claimed.isEmpty()) {
+            return;
+        }
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (WebhookEvent event : claimed) {
+                executor.submit(StatementScope.propagate(() -> processEvent(event)));
+            }
+        }
+    }
+
+    // Finished rows are only kept for inspection; deleting in batches keeps each transaction short
+    @Scheduled(fixedDelayString = "${application.webhooks.purge-interval:1h}")
+    public void purgeFinished() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getRetention());
+        int purged = 0;
+        int deleted;
+        do {
+            deleted = webhookEventRepository.deleteFinishedBefore(cutoff, PURGE_BATCH_SIZE);
+            purged += deleted;
+        } while (deleted == PURGE_BATCH_SIZE);
+        if (purged > 0) {
+            log.info("Purged {} finished webhook events older than {}", purged, properties.getRetention());
+        }
+    }
+
+    // Short transaction: lock due rows, mark them PROCESSING with a lease, commit.
+    // The lease only decides when a crashed worker's row is redelivered; syncs have no upper bound on
+    // duration, so a row can be reclaimed while its first sync is still running. Exclusivity comes from
+    // the item row lock each sync page takes in TransactionSyncService, not from the lease.
+    private List<WebhookEvent> claimDueEvents() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<WebhookEvent> due = webhookEventRepository.lockDueEvents(now, properties.getBatchSize());
+            for (WebhookEvent event : due) {
+                event.setStatus(WebhookEventStatus.PROCESSING);
+                event.setNextAttemptAt(now.plus(properties.getLease()));
+                event.setAttempts(event.getAttempts() + 1);
+                // Time from receipt to first pick-up; retries are deliberately delayed and not counted
+                if (event.getAttempts() == 1) {
+                    meterRegistry.timer("webhooks.queue.lag")
+                            .record(Duration.between(event.getCreatedAt(), now));
+                }
+            }
+            return webhookEventRepository.saveAll(due);
+        });
+    }
+
+    private void processEvent(WebhookEvent event) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            handle(event);
+            event.setStatus(WebhookEventStatus.DONE);
+            event.setLastError(null);
+        } catch (Exception e) {
+            log.error("Error processing webhook {} (attempt {}): {}", event.getId(), event.getAttempts(), e.getMessage());
+            event.setLastError(truncate(e.getMessage()));
+            if (event.getAttempts() >= properties.getMaxAttempts()) {
+                event.setStatus(WebhookEventStatus.FAILED);
+            } else {
+                event.setStatus(WebhookEventStatus.PENDING);
+                event.setNextAttemptAt(LocalDateTime.now().plus(backoff(event.getAttempts())));
+            }
+        }
+        sample.stop(meterRegistry.timer("webhooks.processing",
+                "type", metricType(event.getWebhookType()), "status", event.getStatus().name()));
+        try {
+            webhookEventRepository.save(event);
+        } catch (DataIntegrityViolationException e) {
+            // Back to PENDING while a newer delivery of the same webhook is already waiting; that one
+            // does the same work, so this row is dropped instead of queued twice
+            log.debug("Webhook {} superseded by a queued duplicate", event.getId());
+            webhookEventRepository.deleteById(event.getId());
+        }
+    }
+
+    private void handle(WebhookEvent event) {
+        switch (event.getWebhookType()) {
+            case "TRANSACTIONS":
+                // SYNC_UPDATES_AVAILABLE is the cursor-based equivalent of DEFAULT_UPDATE
+                if ("DEFAULT_UPDATE".equals(event.getWebhookCode())
+                        || "SYNC_UPDATES_AVAILABLE".equals(event.getWebhookCode())) {
+                    PlaidItem item = plaidItemRepository.findByItemId(event.getItemId())
+                            .orElseThrow(() -> new RuntimeException("Item not found"));
+                    transactionSyncService.syncTransactionsForItem(item);
+                }
+                break;
+            case "ITEM":
+                // Handle item status updates
+                log.info("Item webhook received: {}", event.getWebhookCode());
+                break;
+            default:
+                log.info("Unhandled webhook type: {}", event.getWebhookType());
+        }
+    }
+
+    // The type comes from the webhook body, so only known values become tags
+    private static String metricType(String webhookType) {
+        return switch (webhookType) {
+            case "TRANSACTIONS", "ITEM" -> webhookType;
+            default -> "other";
+        };
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = properties.getInitialBackoff().multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(properties.getMaxBackoff()) > 0 ? properties.getMaxBackoff() : delay;
+    }
+
+    private String truncate(String message) {
+        if (message == null || message.length() <= 2000) {
+            return message;
+        }
+        return message.substring(0, 2000);
+    }
+}
@@ -0,0 +1,302 @@
+package project.simulator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// In-process HTTP stand-in for the Plaid endpoints this app calls, for offline and load testing.
+// PlaidConfig points the PlaidApi client at it when plaid.environment is "simulated".
+// Responses are deterministic for a given seed; latency, errors and rate limiting are injected
+// per PlaidSimulatorProperties, and SYNC_UPDATES_AVAILABLE webhooks can be fired back at the app.
+@Component
+@ConditionalOnProperty(name = "plaid.environment", havingValue = "simulated")
+@Slf4j
+public class PlaidSimulator {
+    private static final int MAX_SYNC_COUNT = 500;
+
+    private final PlaidSimulatorProperties properties;
+    private final ObjectMapper objectMapper;
+    private final SimulatedPlaidData data;
+    private final HttpServer server;
+    private final ExecutorService requestExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService webhookScheduler = Executors.newSingleThreadScheduledExecutor();
+    private final HttpClient webhookClient = HttpClient.newBuilder().executor(requestExecutor).build();
+
+    // Live sync events made available per item since startup, on top of its history
+    private final Map<Long, AtomicInteger> liveEvents = new ConcurrentHashMap<>();
+    private final AtomicLong nextLinkedItem;
+    private final Object rateLimitLock = new Object();
+    private long rateWindowSecond;
+    private int rateWindowCount;
+
+    public PlaidSimulator(PlaidSimulatorProperties properties, ObjectMapper objectMapper) throws IOException {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.data = new SimulatedPlaidData(properties, LocalDate.now());
+        // Items linked through Link get indexes after the seeded ones
+        this.nextLinkedItem = new AtomicLong(properties.getItems());
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), properties.getPort()), 0);
+        server.setExecutor(requestExecutor);
+        route("/link/token/create", this::linkTokenCreate);
+        route("/sandbox/public_token/create", this::sandboxPublicTokenCreate);
+        route("/item/public_token/exchange", this::publicTokenExchange);
+        route("/accounts/get", this::accountsGet);
+        route("/transactions/sync", this::transactionsSync);
+        server.start();
+
+        if (!properties.getWebhookUrl().isBlank()) {
+            long interval = properties.getWebhookInterval().toMillis();
+            webhookScheduler.scheduleWithFixedDelay(this::fireWebhooks, interval, interval, TimeUnit.MILLISECONDS);
+        }
+        log.info("Plaid simulator listening on {} ({} seeded items, seed {})",
+                baseUrl(), properties.getItems(), properties.getSeed());
+    }
+
+    public String baseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    @PreDestroy
+    public void stop() {
+        webhookScheduler.shutdownNow();
+        server.stop(0);
+        requestExecutor.shutdownNow();
+    }
+
+    private interface Handler {
+        Map<String, Object> handle(JsonNode request) throws PlaidError;
+    }
+
+    // Failure responses in Plaid's error format
+    private static final class PlaidError extends Exception {
+        private final int status;
+        private final String type;
+        private final String code;
+
+        private PlaidError(int status, String type, String code, String message) {
+            super(message);
+            this.status = status;
+            this.type = type;
+            this.code = code;
+        }
+    }
+
+    private void route(String path, Handler handler) {
+        server.createContext(path, exchange -> {
+            try (exchange) {
+                String requestId = UUID.randomUUID().toString();
+                try {
+                    sleepLatency();
+                    checkRateLimit();
+                    if (roll(properties.getErrorRate())) {
+                        throw new PlaidError(500, "API_ERROR", "INTERNAL_SERVER_ERROR", "Simulated internal error");
+                    }
+                    JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+                    Map<String, Object> body = handler.handle(request);
+                    body.put("request_id", requestId);
+                    respond(exchange, 200, body);
+                } catch (PlaidError e) {
+                    Map<String, Object> error = new LinkedHashMap<>();
+                    error.put("error_type", e.type);
+                    error.put("error_code", e.code);
+                    error.put("error_message", e.getMessage());
+                    error.put("display_message", null);
+                    error.put("request_id", requestId);
+                    respond(exchange, e.status, error);
+                }
+            } catch (Exception e) {
+                log.error("Plaid simulator failed handling {}: {}", path, e.getMessage());
+            }
+        });
+    }
+
+    private Map<String, Object> linkTokenCreate(JsonNode request) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("link_token", "link-sim-" + UUID.randomUUID());
+        body.put("expiration", OffsetDateTime.now().plusHours(4).toString());
+        return body;
+    }
+
+    private Map<String, Object> sandboxPublicTokenCreate(JsonNode request) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("public_token", "public-sim-" + nextLinkedItem.getAndIncrement());
+        return body;
+    }
+
+    private Map<String, Object> publicTokenExchange(JsonNode request) throws PlaidError {
+        long item = SimulatedPlaidData.itemIndex(request.path("public_token").asText(null), "public-sim-");
+        if (item < 0) {
+            throw new PlaidError(400, "INVALID_INPUT", "INVALID_PUBLIC_TOKEN", "Unknown public token");
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("access_token", SimulatedPlaidData.accessToken(item));
+        body.put("item_id", SimulatedPlaidData.itemId(item));
+        return body;
+    }
+
+    private Map<String, Object> accountsGet(JsonNode request) throws PlaidError {
+        long item = requireItem(request);
+        Map<String, Object> itemBody = new LinkedHashMap<>();
+        itemBody.put("item_id", SimulatedPlaidData.itemId(item));
+        itemBody.put("institution_id", data.institutionId(item));
+        itemBody.put("webhook", properties.getWebhookUrl());
+        itemBody.put("available_products", List.of());
+        itemBody.put("billed_products", List.of("transactions"));
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("accounts", data.accounts(item));
+        body.put("item", itemBody);
+        return body;
+    }
+
+    // Cursors are "sim-<position>" into the item's deterministic event stream
+    private Map<String, Object> transactionsSync(JsonNode request) throws PlaidError {
+        long item = requireItem(request);
+        String cursor = request.path("cursor").asText("");
+        int start = 0;
+        if (!cursor.isEmpty()) {
+            start = (int) SimulatedPlaidData.itemIndex(cursor, "sim-");
+            if (start < 0) {
+                throw new PlaidError(400, "INVALID_INPUT", "INVALID_FIELD", "Invalid cursor");
+            }
+            if (roll(properties.getPaginationMutationRate())) {
+                throw new PlaidError(400, "TRANSACTIONS_ERROR", "TRANSACTIONS_SYNC_MUTATION_DURING_PAGINATION",
+                        "Underlying transaction data changed since last page was fetched");
+            }
+        }
+        int count = Math.min(Math.max(request.path("count").asInt(100), 1), MAX_SYNC_COUNT);
+        int available = data.historySize() + liveEvents.getOrDefault(item, new AtomicInteger()).get();
+        int end = Math.min(start + count, available);
+
+        List<Map<String, Object>> added = new ArrayList<>();
+        List<Map<String, Object>> modified = new ArrayList<>();
+        List<Map<String, Object>> removed = new ArrayList<>();
+        for (int position = start; position < end; position++) {
+            SimulatedPlaidData.Event event = data.event(item, position);
+            switch (event.kind()) {
+                case ADDED -> added.add(event.transaction());
+                case MODIFIED -> modified.add(event.transaction());
+                case REMOVED -> removed.add(Map.of("transaction_id", event.transactionId()));
+            }
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("added", added);
+        body.put("modified", modified);
+        body.put("removed", removed);
+        body.put("next_cursor", "sim-" + Math.max(end, start));
+        body.put("has_more", end < available);
+        return body;
+    }
+
+    private long requireItem(JsonNode request) throws PlaidError {
+        long item = SimulatedPlaidData.itemIndex(request.path("access_token").asText(null), "access-sim-");
+        if (item < 0) {
+            throw new PlaidError(400, "INVALID_INPUT", "INVALID_ACCESS_TOKEN", "Unknown access token");
+        }
+        return item;
+    }
+
+    // Makes new events available on random items and tells the app about them
+    private void fireWebhooks() {
+        try {
+            long items = nextLinkedItem.get();
+            for (int i = 0; i < properties.getWebhooksPerTick() && items > 0; i++) {
+                long item = ThreadLocalRandom.current().nextLong(items);
+                liveEvents.computeIfAbsent(item, k -> new AtomicInteger()).addAndGet(properties.getUpdatesPerWebhook());
+
+                Map<String, Object> payload = new LinkedHashMap<>();
+                payload.put("webhook_type", "TRANSACTIONS");
+                payload.put("webhook_code", "SYNC_UPDATES_AVAILABLE");
+                payload.put("item_id", SimulatedPlaidData.itemId(item));
+                payload.put("initial_update_complete", true);
+                payload.put("historical_update_complete", true);
+
+                HttpRequest request = HttpRequest.newBuilder(URI.create(properties.getWebhookUrl()))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(payload)))
+                        .build();
+                webhookClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, error) -> {
+                            if (error != null) {
+                                log.warn("Simulated webhook for item {} failed: {}", item, error.getMessage());
+                            } else if (response.statusCode() >= 300) {
+                                log.warn("Simulated webhook for item {} got HTTP {}", item, response.statusCode());
+                            }
+                        });
+            }
+        } catch (Exception e) {
+            log.error("Error firing simulated webhooks: {}", e.getMessage());
+        }
+    }
+
+    private void sleepLatency() throws InterruptedException {
+        long min = properties.getMinLatency().toMillis();
+        long max = properties.getMaxLatency().toMillis();
+        long latency = max > min ? ThreadLocalRandom.current().nextLong(min, max + 1) : min;
+        if (latency > 0) {
+            Thread.sleep(latency);
+        }
+    }
+
+    // Fixed one-second windows; coarse, but enough to exercise the client's retry paths
+    private void checkRateLimit() throws PlaidError {
+        int limit = properties.getRateLimitPerSecond();
+        if (limit <= 0) {
+            return;
+        }
+        long second = System.currentTimeMillis() / 1000;
+        synchronized (rateLimitLock) {
+            if (second != rateWindowSecond) {
+                rateWindowSecond = second;
+                rateWindowCount = 0;
+            }
+            if (++rateWindowCount > limit) {
+                throw new PlaidError(429, "RATE_LIMIT_EXCEEDED", "RATE_LIMIT", "Simulated rate limit exceeded");
+            }
+        }
+    }
+
+    private boolean roll(double rate) {
+        return rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    private void respond(HttpExchange exchange, int status, Map<String, Object> body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package project.simulator;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Volume and fault settings for the in-process Plaid stand-in (plaid.environment: simulated)
+@Component
+@ConfigurationProperties(prefix = "plaid.simulator")
+@Data
+public class PlaidSimulatorProperties {
+    // 0 picks a free port
+    private int port = 0;
+    // Same seed, same items, accounts and transactions
+    private long seed = 42;
+
+    // Items seeded into the database at startup when seedDatabase is true
+    private int items = 1000;
+    private boolean seedDatabase = false;
+    private int itemsPerUser = 2;
+    // Items are spread over this many institution ids, which the sync sweep limits separately
+    private int institutions = 20;
+    private int accountsPerItem = 2;
+    private int transactionsPerAccount = 250;
+    private int historyDays = 730;
+
+    // Injected faults
+    private Duration minLatency = Duration.ofMillis(20);
+    private Duration maxLatency = Duration.ofMillis(150);
+    // Fraction of calls answered with a 500 API_ERROR
+    private double errorRate = 0.0;
+    // Fraction of follow-up sync pages answered with TRANSACTIONS_SYNC_MUTATION_DURING_PAGINATION
+    private double paginationMutationRate = 0.0;
+    // Requests per second across all endpoints before 429 RATE_LIMIT_EXCEEDED; 0 disables the limit
+    private int rateLimitPerSecond = 0;
+
+    // SYNC_UPDATES_AVAILABLE webhooks sent back to the app; disabled when webhookUrl is empty
+    private String webhookUrl = "";
+    private Duration webhookInterval = Duration.ofSeconds(10);
+    private int webhooksPerTick = 10;
+    // New sync events (mostly additions, some modifications and removals) made available per webhook
+    private int updatesPerWebhook = 5;
+}
@@ -0,0 +1,108 @@
+package project.simulator;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Creates users, Plaid items and accounts matching the simulator's seeded items, so a sync sweep
+// over e.g. 100k items can start straight away. Rows are written with JDBC batches in chunks;
+// a database that already has the first simulated item is left alone.
+// Seeded users log in as sim-user-<n>@example.com with password "password".
+@Component
+@ConditionalOnProperty(name = "plaid.environment", havingValue = "simulated")
+@RequiredArgsConstructor
+@Slf4j
+public class PlaidSimulatorSeeder {
+    private static final int CHUNK_ITEMS = 1000;
+    private static final String SEEDED_PASSWORD = "password";
+
+    private final PlaidSimulatorProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        if (!properties.isSeedDatabase() || properties.getItems() <= 0) {
+            return;
+        }
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM plaid_items WHERE item_id = ?", Integer.class, SimulatedPlaidData.itemId(0));
+        if (existing != null && existing > 0) {
+            log.info("Simulated items already seeded, skipping");
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        SimulatedPlaidData data = new SimulatedPlaidData(properties, LocalDate.now());
+        // One hash for every seeded user; BCrypt per row would dominate the seeding time
+        String passwordHash = passwordEncoder.encode(SEEDED_PASSWORD);
+        int itemsPerUser = Math.max(properties.getItemsPerUser(), 1);
+
+        for (int from = 0; from < properties.getItems(); from += CHUNK_ITEMS) {
+            int to = Math.min(from + CHUNK_ITEMS, properties.getItems());
+            int chunkStart = from;
+            transactionTemplate.executeWithoutResult(status -> seedChunk(data, chunkStart, to, itemsPerUser, passwordHash));
+        }
+        log.info("Seeded {} simulated items in {} ms", properties.getItems(), System.currentTimeMillis() - start);
+    }
+
+    // A user whose items span two chunks is inserted by the first and looked up by the second
+    private void seedChunk(SimulatedPlaidData data, int fromItem, int toItem, int itemsPerUser, String passwordHash) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> users = new ArrayList<>();
+        for (int user = fromItem / itemsPerUser; user <= (toItem - 1) / itemsPerUser; user++) {
+            users.add(new Object[]{email(user), "Sim", "User " + user, passwordHash, "USER", now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (email, first_name, last_name, password, role, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?) ON CONFLICT (email) DO NOTHING", users);
+        Map<String, Long> userIds = new HashMap<>();
+        jdbcTemplate.query("SELECT id, email FROM users WHERE email IN (" +
+                        String.join(",", Collections.nCopies(users.size(), "?")) + ")",
+                rs -> {
+                    userIds.put(rs.getString(2), rs.getLong(1));
+                },
+                users.stream().map(u -> u[0]).toArray());
+
+        List<Object[]> items = new ArrayList<>();
+        List<Object[]> accounts = new ArrayList<>();
+        for (int item = fromItem; item < toItem; item++) {
+            Long userId = userIds.get(email(item / itemsPerUser));
+            items.add(new Object[]{userId, SimulatedPlaidData.itemId(item), SimulatedPlaidData.accessToken(item),
+                    data.institutionId(item), "Simulated Bank", now, now});
+            for (Map<String, Object> account : data.accounts(item)) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> balances = (Map<String, Object>) account.get("balances");
+                accounts.add(new Object[]{userId, account.get("mask"), account.get("name"),
+                        "checking".equals(account.get("subtype")) ? "CHECKING" : "SAVINGS",
+                        BigDecimal.valueOf((Double) balances.get("current")), "Simulated Bank",
+                        account.get("account_id"), now, now});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO plaid_items (user_id, item_id, access_token, institution_id, " +
+                "institution_name, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)", items);
+        jdbcTemplate.batchUpdate("INSERT INTO accounts (user_id, account_number, account_name, account_type, balance, " +
+                "bank_name, plaid_account_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", accounts);
+    }
+
+    private String email(int user) {
+        return "sim-user-" + user + "@example.com";
+    }
+}
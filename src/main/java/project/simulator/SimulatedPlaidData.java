@@ -0,0 +1,142 @@
+package project.simulator;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+// Deterministic accounts and transaction streams for simulated items. Everything is derived from
+// (seed, item, position), so nothing is stored and any sync page can be regenerated on demand.
+// Positions below the history size are the item's initial history; later positions are live
+// updates: mostly new transactions, with some modifications and removals of historical ones.
+final class SimulatedPlaidData {
+    enum Kind { ADDED, MODIFIED, REMOVED }
+
+    record Event(Kind kind, String transactionId, Map<String, Object> transaction) {
+    }
+
+    private static final String[] MERCHANTS = {
+            "Whole Foods", "Shell", "Amazon", "Uber", "Starbucks", "Netflix", "Target", "Walgreens",
+            "Delta", "Chipotle", "Home Depot", "Spotify", "Costco", "Lyft", "CVS", "Apple"
+    };
+
+    private final PlaidSimulatorProperties properties;
+    private final LocalDate today;
+
+    SimulatedPlaidData(PlaidSimulatorProperties properties, LocalDate today) {
+        this.properties = properties;
+        this.today = today;
+    }
+
+    static String accessToken(long item) {
+        return "access-sim-" + item;
+    }
+
+    static String itemId(long item) {
+        return "item-sim-" + item;
+    }
+
+    static String accountId(long item, int account) {
+        return "acc-sim-" + item + "-" + account;
+    }
+
+    // Inverse of accessToken/itemId; -1 for anything else
+    static long itemIndex(String token, String prefix) {
+        if (token == null || !token.startsWith(prefix)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(token.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    String institutionId(long item) {
+        return "ins_sim_" + (item % properties.getInstitutions());
+    }
+
+    int historySize() {
+        return properties.getAccountsPerItem() * properties.getTransactionsPerAccount();
+    }
+
+    List<Map<String, Object>> accounts(long item) {
+        List<Map<String, Object>> accounts = new ArrayList<>();
+        for (int a = 0; a < properties.getAccountsPerItem(); a++) {
+            SplittableRandom random = random(item, -1 - a);
+            double current = random.nextInt(50_000, 2_500_000) / 100.0;
+
+            Map<String, Object> balances = new LinkedHashMap<>();
+            balances.put("available", current);
+            balances.put("current", current);
+            balances.put("iso_currency_code", "USD");
+
+            Map<String, Object> account = new LinkedHashMap<>();
+            account.put("account_id", accountId(item, a));
+            account.put("balances", balances);
+            account.put("mask", String.format("%04d", random.nextInt(10_000)));
+            account.put("name", a == 0 ? "Simulated Checking" : "Simulated Savings " + a);
+            account.put("official_name", "Simulated Bank Account " + a);
+            account.put("type", "depository");
+            account.put("subtype", a == 0 ? "checking" : "savings");
+            accounts.add(account);
+        }
+        return accounts;
+    }
+
+    Event event(long item, int position) {
+        int history = historySize();
+        if (position < history) {
+            return new Event(Kind.ADDED, transactionId(item, position), transaction(item, position, null));
+        }
+        SplittableRandom random = random(item, position);
+        int roll = random.nextInt(100);
+        if (roll < 90 || history == 0) {
+            return new Event(Kind.ADDED, transactionId(item, position), transaction(item, position, today));
+        }
+        int target = random.nextInt(history);
+        if (roll < 95) {
+            Map<String, Object> modified = transaction(item, target, null);
+            modified.put("amount", amount(random));
+            return new Event(Kind.MODIFIED, transactionId(item, target), modified);
+        }
+        return new Event(Kind.REMOVED, transactionId(item, target), null);
+    }
+
+    private String transactionId(long item, int position) {
+        return "tx-sim-" + item + "-" + position;
+    }
+
+    // Historical rows are spread evenly over historyDays; live rows are dated today
+    private Map<String, Object> transaction(long item, int position, LocalDate date) {
+        SplittableRandom random = random(item, position);
+        int history = Math.max(historySize(), 1);
+        LocalDate day = date != null ? date
+                : today.minusDays(properties.getHistoryDays() - (long) position * properties.getHistoryDays() / history);
+        String merchant = random.nextInt(10) == 0 ? null : MERCHANTS[random.nextInt(MERCHANTS.length)];
+
+        Map<String, Object> transaction = new LinkedHashMap<>();
+        transaction.put("transaction_id", transactionId(item, position));
+        transaction.put("account_id", accountId(item, position % properties.getAccountsPerItem()));
+        transaction.put("amount", amount(random));
+        transaction.put("iso_currency_code", "USD");
+        transaction.put("date", day.toString());
+        transaction.put("name", merchant != null ? merchant.toUpperCase() + " #" + random.nextInt(1000) : "TRANSFER");
+        transaction.put("merchant_name", merchant);
+        transaction.put("pending", date != null && random.nextInt(4) == 0);
+        transaction.put("payment_channel", "in store");
+        return transaction;
+    }
+
+    // Plaid convention: positive is money leaving the account; about one in eight rows is a deposit
+    private double amount(SplittableRandom random) {
+        double amount = random.nextInt(100, 25_000) / 100.0;
+        return random.nextInt(8) == 0 ? -amount * 10 : amount;
+    }
+
+    private SplittableRandom random(long item, int position) {
+        return new SplittableRandom(properties.getSeed() * 0x9E3779B97F4A7C15L + item * 1_000_003L + position);
+    }
+}
@@ -0,0 +1,85 @@
+-- Schema as previously generated by ddl-auto: update.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate).
+
+CREATE TABLE users (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email       VARCHAR(255) UNIQUE,
+    first_name  VARCHAR(255),
+    last_name   VARCHAR(255),
+    password    VARCHAR(255) NOT NULL,
+    role        VARCHAR(255),
+    created_at  TIMESTAMP(6),
+    updated_at  TIMESTAMP(6)
+);
+
+CREATE TABLE accounts (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id           BIGINT       NOT NULL REFERENCES users (id),
+    account_number    VARCHAR(255),
+    account_name      VARCHAR(255),
+    account_type      VARCHAR(255),
+    balance           NUMERIC(38, 2),
+    bank_name         VARCHAR(255),
+    plaid_account_id  VARCHAR(255) UNIQUE,
+    created_at        TIMESTAMP(6),
+    updated_at        TIMESTAMP(6)
+);
+
+CREATE TABLE transactions (
+    id                    BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    account_id            BIGINT NOT NULL REFERENCES accounts (id),
+    amount                NUMERIC(38, 2),
+    description           VARCHAR(255),
+    merchant              VARCHAR(255),
+    type                  VARCHAR(255),
+    category              VARCHAR(255),
+    sub_category          VARCHAR(255),
+    transaction_date      TIMESTAMP(6),
+    transaction_id        VARCHAR(255),
+    plaid_transaction_id  VARCHAR(255) UNIQUE,
+    pending               BOOLEAN,
+    created_at            TIMESTAMP(6),
+    updated_at            TIMESTAMP(6)
+);
+
+CREATE TABLE plaid_items (
+    id                   BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id              BIGINT       NOT NULL REFERENCES users (id),
+    item_id              VARCHAR(255) NOT NULL,
+    access_token         VARCHAR(255) NOT NULL,
+    institution_id       VARCHAR(255),
+    institution_name     VARCHAR(255),
+    transactions_cursor  VARCHAR(255),
+    last_sync            TIMESTAMP(6),
+    error                VARCHAR(255),
+    webhook_url          VARCHAR(255),
+    created_at           TIMESTAMP(6) NOT NULL,
+    updated_at           TIMESTAMP(6)
+);
+
+CREATE TABLE webhook_events (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    webhook_type     VARCHAR(255) NOT NULL,
+    webhook_code     VARCHAR(255),
+    item_id          VARCHAR(255),
+    status           VARCHAR(255) NOT NULL,
+    attempts         INTEGER      NOT NULL,
+    next_attempt_at  TIMESTAMP(6) NOT NULL,
+    last_error       VARCHAR(2000),
+    created_at       TIMESTAMP(6) NOT NULL,
+    updated_at       TIMESTAMP(6)
+);
+
+CREATE INDEX idx_webhook_events_due ON webhook_events (status, next_attempt_at);
+
+CREATE TABLE monthly_rollups (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id       BIGINT         NOT NULL,
+    account_id    BIGINT         NOT NULL,
+    year_month    VARCHAR(7)     NOT NULL,
+    type          VARCHAR(255)   NOT NULL,
+    category      VARCHAR(255)   NOT NULL,
+    total_amount  NUMERIC(19, 2) NOT NULL,
+    tx_count      BIGINT         NOT NULL,
+    CONSTRAINT uk_monthly_rollups_key UNIQUE (user_id, account_id, year_month, type, category)
+);
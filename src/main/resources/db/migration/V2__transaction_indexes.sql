@@ -0,0 +1,28 @@
+-- Indexes for the hot TransactionRepository queries.
+-- (transaction_date DESC, id DESC) also serves the keyset listings.
+
+-- findByAccountInAndTransactionDateBetween, findByAccountId, keyset listings per account
+CREATE INDEX IF NOT EXISTS idx_transactions_account_date
+    ON transactions (account_id, transaction_date DESC, id DESC);
+
+-- findByAccountUserEmailAndPendingTrue: pending rows are a small, hot subset
+CREATE INDEX IF NOT EXISTS idx_transactions_pending
+    ON transactions (account_id, transaction_date DESC, id DESC)
+    WHERE pending = true;
+
+-- findByAccountInAndType / findByAccountInAndCategory and their keyset variants
+CREATE INDEX IF NOT EXISTS idx_transactions_account_type
+    ON transactions (account_id, type, transaction_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_transactions_account_category
+    ON transactions (account_id, category, transaction_date DESC, id DESC);
+
+-- Every per-user query joins through accounts.user_id
+CREATE INDEX IF NOT EXISTS idx_accounts_user_id ON accounts (user_id);
+
+CREATE INDEX IF NOT EXISTS idx_plaid_items_user_id ON plaid_items (user_id);
+CREATE INDEX IF NOT EXISTS idx_plaid_items_item_id ON plaid_items (item_id);
+
+CREATE INDEX IF NOT EXISTS idx_monthly_rollups_user_month ON monthly_rollups (user_id, year_month);
+
+-- Plaid cursors can exceed 255 characters
+ALTER TABLE plaid_items ALTER COLUMN transactions_cursor TYPE TEXT;
@@ -0,0 +1,2 @@
+-- Optimistic locking column for Account
+ALTER TABLE accounts ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
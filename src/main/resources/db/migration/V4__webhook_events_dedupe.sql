@@ -0,0 +1,18 @@
+-- At most one PENDING row per (item, type, code), so enqueue can dedupe with ON CONFLICT DO NOTHING
+-- instead of a racy check-then-insert. Duplicates queued before this migration are collapsed first.
+DELETE FROM webhook_events w
+USING webhook_events keep
+WHERE w.status = 'PENDING' AND keep.status = 'PENDING'
+  AND w.item_id = keep.item_id
+  AND w.webhook_type = keep.webhook_type
+  AND w.webhook_code = keep.webhook_code
+  AND w.id > keep.id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_webhook_events_pending
+    ON webhook_events (item_id, webhook_type, webhook_code)
+    WHERE status = 'PENDING';
+
+-- Retention purge of finished rows
+CREATE INDEX IF NOT EXISTS idx_webhook_events_finished
+    ON webhook_events (updated_at)
+    WHERE status IN ('DONE', 'FAILED');
@@ -0,0 +1,128 @@
+package project.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static project.monitoring.StatementAssertions.assertMaxStatements;
+import static project.monitoring.StatementAssertions.maxStatements;
+
+// Statement budgets for the hot read endpoints. The user has enough accounts and transactions that a
+// per-row lookup would blow the budget, so an N+1 slipping into one of these paths fails here.
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = "application.sql-budget.expose-headers=true")
+@Testcontainers(disabledWithoutDocker = true)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EndpointStatementBudgetTest {
+    private static final int ACCOUNTS = 10;
+    private static final int TRANSACTIONS = 60;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String bearer;
+
+    @BeforeAll
+    void seed() throws Exception {
+        String body = mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("email", "budget@example.com", "password", "password",
+                                "firstName", "Budget", "lastName", "Test"))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        bearer = "Bearer " + objectMapper.readTree(body).get("token").asText();
+
+        List<Long> accountIds = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            String account = mockMvc.perform(post("/api/accounts")
+                            .header("Authorization", bearer)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(json(Map.of("accountName", "Account " + i, "accountType", "CHECKING",
+                                    "balance", 10_000))))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            accountIds.add(objectMapper.readTree(account).get("id").asLong());
+        }
+
+        List<Map<String, Object>> transactions = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.now().minusDays(TRANSACTIONS);
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            transactions.add(Map.of(
+                    "accountId", accountIds.get(i % ACCOUNTS),
+                    "amount", 10 + i,
+                    "type", i % 4 == 0 ? "INCOME" : "EXPENSE",
+                    "category", "FOOD",
+                    "merchant", "Merchant " + (i % 7),
+                    "transactionDate", start.plusDays(i).toString()));
+        }
+        mockMvc.perform(post("/api/transactions/batch")
+                        .header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("mode", "ALL_OR_NOTHING", "transactions", transactions))))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void accountListStaysWithinBudget() throws Exception {
+        assertMaxStatements(5, () -> mockMvc.perform(get("/api/accounts").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(maxStatements(5)));
+    }
+
+    @Test
+    void transactionPageStaysWithinBudget() throws Exception {
+        JsonNode page = objectMapper.readTree(assertMaxStatements(5, () -> mockMvc.perform(
+                        get("/api/transactions").param("limit", "50").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(maxStatements(5))
+                .andReturn().getResponse().getContentAsString()));
+
+        mockMvc.perform(get("/api/transactions")
+                        .param("limit", "50")
+                        .param("cursor", page.get("nextCursor").asText())
+                        .header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(maxStatements(5));
+    }
+
+    @Test
+    void analyticsStayWithinBudget() throws Exception {
+        mockMvc.perform(get("/api/transactions/summary").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(maxStatements(6));
+        mockMvc.perform(get("/api/analysis/trends").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(maxStatements(5));
+    }
+
+    private String json(Object value) throws Exception {
+        return objectMapper.writeValueAsString(value);
+    }
+}
@@ -0,0 +1,45 @@
+package project.monitoring;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.fail;
+
+// Query-count guards for tests. Wrap a MockMvc call (or any service call) in assertMaxStatements
+// so an N+1 introduced later fails the build with the repeated statement in the message.
+public final class StatementAssertions {
+    @FunctionalInterface
+    public interface Work<T> {
+        T run() throws Exception;
+    }
+
+    private StatementAssertions() {
+    }
+
+    public static <T> T assertMaxStatements(int max, Work<T> work) throws Exception {
+        try (StatementScope scope = StatementScope.open()) {
+            T result = work.run();
+            if (scope.statements() > max) {
+                fail("Expected at most " + max + " SQL statements but " + scope.statements() + " ran. Repeated: "
+                        + scope.repeatedShapes(5).stream()
+                        .map(shape -> shape.count() + "x " + shape.sql())
+                        .collect(Collectors.joining(" | ")));
+            }
+            return result;
+        }
+    }
+
+    // Checks the count StatementBudgetFilter reported on the response; needs the filter in the MockMvc chain
+    public static ResultMatcher maxStatements(int max) {
+        return result -> {
+            String header = result.getResponse().getHeader(StatementBudgetFilter.STATEMENTS_HEADER);
+            assertNotNull(header, "Response has no " + StatementBudgetFilter.STATEMENTS_HEADER + " header");
+            int statements = Integer.parseInt(header);
+            if (statements > max) {
+                fail("Expected at most " + max + " SQL statements but the request issued " + statements);
+            }
+        };
+    }
+}
@@ -0,0 +1,54 @@
+package project.monitoring;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class StatementScopeTest {
+
+    @Test
+    void shapesIgnoreLiteralsAndInListLength() {
+        assertEquals("select * from t where id in (?...) and name = ? and n > ?",
+                StatementScope.shapeOf("select *\n  from t where id in (?, ?, ?) and name = 'x''y' and n > 10"));
+        assertEquals(StatementScope.shapeOf("select a from t where id in (?, ?)"),
+                StatementScope.shapeOf("select a from t where id in (?, ?, ?, ?)"));
+    }
+
+    @Test
+    void repeatedShapesAreReportedMostFrequentFirst() {
+        try (StatementScope scope = StatementScope.open()) {
+            StatementCountingInspector inspector = new StatementCountingInspector();
+            for (int i = 0; i < 5; i++) {
+                inspector.inspect("select * from accounts where id = " + i);
+            }
+            inspector.inspect("select * from users where email = ?");
+            inspector.inspect("select * from users where email = ?");
+            inspector.inspect("select count(*) from transactions");
+
+            assertEquals(8, scope.statements());
+            List<StatementScope.Shape> repeated = scope.repeatedShapes(5);
+            assertEquals(2, repeated.size());
+            assertEquals(new StatementScope.Shape("select * from accounts where id = ?", 5), repeated.get(0));
+        }
+    }
+
+    @Test
+    void nestedScopesAreChargedToTheEnclosingScope() throws InterruptedException {
+        StatementCountingInspector inspector = new StatementCountingInspector();
+        try (StatementScope outer = StatementScope.open()) {
+            inspector.inspect("select 1");
+            try (StatementScope inner = StatementScope.open()) {
+                inspector.inspect("select 2");
+                assertEquals(1, inner.statements());
+            }
+            Thread worker = new Thread(StatementScope.propagate(() -> inspector.inspect("select 3")));
+            worker.start();
+            worker.join();
+            assertEquals(3, outer.statements());
+        }
+        assertNull(StatementScope.current());
+    }
+}
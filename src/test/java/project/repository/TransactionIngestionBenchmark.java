@@ -0,0 +1,144 @@
+package project.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.model.Account;
+import project.model.AccountType;
+import project.model.Transaction;
+import project.model.TransactionType;
+import project.model.User;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Compares the old per-row sync path with the batched upsert.
+// Run with: mvn test -Dtest=TransactionIngestionBenchmark -Dbenchmark=true
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TransactionIngestionBenchmark {
+    private static final int ROWS = 5_000;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private TransactionBatchRepository transactionBatchRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User user;
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString();
+        user = new User();
+        user.setEmail("bench-" + suffix + "@example.com");
+        user.setPassword("bench");
+        user = userRepository.save(user);
+
+        account = new Account();
+        account.setUser(user);
+        account.setAccountName("Benchmark");
+        account.setAccountType(AccountType.CHECKING);
+        account.setBalance(BigDecimal.ZERO);
+        account.setPlaidAccountId("bench-" + suffix);
+        account.setCreatedAt(LocalDateTime.now());
+        account = accountRepository.save(account);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionRepository.deleteAll(transactionRepository.findByAccountId(account.getId()));
+        accountRepository.delete(account);
+        userRepository.delete(user);
+    }
+
+    @Test
+    void perRowVersusBatchedUpsert() {
+        // Each pass runs an insert round and an update round over the same ids
+        List<Transaction> perRowRows = syntheticRows("row");
+        double perRow = rowsPerSecond(() -> transactionTemplate.executeWithoutResult(s -> perRowUpsert(perRowRows)));
+        double perRowUpdate = rowsPerSecond(() -> transactionTemplate.executeWithoutResult(s -> perRowUpsert(perRowRows)));
+
+        List<Transaction> batchRows = syntheticRows("batch");
+        double batched = rowsPerSecond(() -> transactionTemplate.executeWithoutResult(s -> batchedUpsert(batchRows)));
+        double batchedUpdate = rowsPerSecond(() -> transactionTemplate.executeWithoutResult(s -> batchedUpsert(batchRows)));
+
+        System.out.printf("per-row insert: %.0f rows/s, update: %.0f rows/s%n", perRow, perRowUpdate);
+        System.out.printf("batched insert: %.0f rows/s, update: %.0f rows/s%n", batched, batchedUpdate);
+    }
+
+    // Mirrors the previous implementation: two lookups and a save for every row
+    private void perRowUpsert(List<Transaction> rows) {
+        for (Transaction row : rows) {
+            Transaction existing = transactionRepository.findByPlaidTransactionId(row.getPlaidTransactionId())
+                    .orElse(null);
+            if (existing != null) {
+                existing.setAmount(row.getAmount());
+                existing.setPending(row.getPending());
+                transactionRepository.save(existing);
+            } else {
+                Transaction copy = new Transaction();
+                copy.setAccount(accountRepository.findByPlaidAccountId(account.getPlaidAccountId()).orElseThrow());
+                copy.setPlaidTransactionId(row.getPlaidTransactionId());
+                copy.setAmount(row.getAmount());
+                copy.setType(row.getType());
+                copy.setTransactionDate(row.getTransactionDate());
+                copy.setPending(row.getPending());
+                transactionRepository.save(copy);
+            }
+        }
+        transactionRepository.flush();
+    }
+
+    // Mirrors TransactionSyncService.processTransactions
+    private void batchedUpsert(List<Transaction> rows) {
+        Set<String> ids = rows.stream().map(Transaction::getPlaidTransactionId).collect(Collectors.toSet());
+        transactionRepository.findRollupRowsByPlaidTransactionIdIn(ids);
+        Map<String, Account> accounts = accountRepository.findByPlaidAccountIdIn(Set.of(account.getPlaidAccountId()))
+                .stream()
+                .collect(Collectors.toMap(Account::getPlaidAccountId, Function.identity()));
+        rows.forEach(row -> row.setAccount(accounts.get(account.getPlaidAccountId())));
+        transactionBatchRepository.upsertPlaidTransactions(rows);
+    }
+
+    private List<Transaction> syntheticRows(String prefix) {
+        String runId = UUID.randomUUID().toString();
+        List<Transaction> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            Transaction t = new Transaction();
+            t.setAccount(account);
+            t.setPlaidTransactionId(prefix + "-" + runId + "-" + i);
+            t.setAmount(BigDecimal.valueOf(i % 500 + 1, 2));
+            t.setDescription("Synthetic " + i);
+            t.setType(TransactionType.EXPENSE);
+            t.setTransactionDate(LocalDateTime.now().minusDays(i % 90));
+            t.setPending(false);
+            rows.add(t);
+        }
+        return rows;
+    }
+
+    private double rowsPerSecond(Runnable work) {
+        long start = System.nanoTime();
+        work.run();
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        return ROWS / seconds;
+    }
+}
@@ -0,0 +1,198 @@
+package project.repository;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import project.model.TransactionCategory;
+import project.model.TransactionType;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs the migrations against a seeded Postgres, calls each hot repository method and EXPLAINs the exact
+// SQL Hibernate generated for it (recorded by a statement inspector), so a changed derived query or a
+// dropped index fails here. Plans are generic (Postgres 16), since the recorded SQL has bind markers.
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@TestPropertySource(properties = "spring.jpa.hibernate.ddl-auto=validate")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TransactionQueryPlanTest {
+    private static final String USER = "user10@example.com";
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 3, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2024, 3, 31, 23, 59, 59);
+    private static final Pattern BIND_MARKER = Pattern.compile("\\?");
+    private static final List<String> HOT_TABLES = List.of("transactions", "monthly_rollups");
+
+    // Records the SQL of every statement Hibernate prepares, unchanged
+    static class RecordingInspector implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    @TestConfiguration
+    static class RecordingConfig {
+        @Bean
+        HibernatePropertiesCustomizer recordingInspector() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new RecordingInspector());
+        }
+    }
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private MonthlyRollupRepository rollupRepository;
+
+    private JdbcTemplate jdbc;
+
+    @BeforeAll
+    void seed() {
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("INSERT INTO users (email, password, created_at) " +
+                "SELECT 'user' || g || '@example.com', 'x', now() FROM generate_series(1, 1000) g");
+        jdbc.execute("INSERT INTO accounts (user_id, account_name, account_type, balance, plaid_account_id, created_at) " +
+                "SELECT ((g - 1) % 1000) + 1, 'Account ' || g, 'CHECKING', 1000, 'plaid-acc-' || g, now() " +
+                "FROM generate_series(1, 2000) g");
+        jdbc.execute("INSERT INTO transactions (account_id, amount, description, merchant, type, category, " +
+                "transaction_date, plaid_transaction_id, pending, created_at, updated_at) " +
+                "SELECT ((g - 1) % 2000) + 1, (g % 500) + 1, 'Seed ' || g, 'Merchant ' || (g % 300), " +
+                "CASE WHEN g % 7 = 0 THEN 'INCOME' ELSE 'EXPENSE' END, " +
+                "(ARRAY['FOOD', 'HOUSING', 'SHOPPING', 'UTILITIES', 'ENTERTAINMENT'])[(g % 5) + 1], " +
+                "timestamp '2023-01-01' + (g % 730) * interval '1 day', " +
+                "'plaid-tx-' || g, g % 100 = 0, now(), now() " +
+                "FROM generate_series(1, 200000) g");
+        jdbc.execute("INSERT INTO monthly_rollups (user_id, account_id, year_month, type, category, total_amount, tx_count) " +
+                "SELECT a.user_id, t.account_id, to_char(t.transaction_date, 'YYYY-MM'), t.type, t.category, " +
+                "SUM(t.amount), COUNT(*) FROM transactions t JOIN accounts a ON a.id = t.account_id " +
+                "GROUP BY 1, 2, 3, 4, 5");
+        jdbc.execute("ANALYZE");
+    }
+
+    // The platform-wide sketch stream is a deliberate full pass and is left out
+    private Map<String, Runnable> hotQueries() {
+        KeysetScrollPosition afterFirstPage = keyset(LocalDateTime.of(2024, 6, 1, 0, 0), 150_000L);
+        Limit page = Limit.of(51);
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("findByIdAndAccountUserEmail",
+                () -> transactionRepository.findByIdAndAccountUserEmail(10L, USER));
+        queries.put("findRollupRowsByPlaidTransactionIdIn",
+                () -> transactionRepository.findRollupRowsByPlaidTransactionIdIn(
+                        List.of("plaid-tx-10", "plaid-tx-11", "plaid-tx-12")));
+        queries.put("findByAccountUserEmailOrderByTransactionDateDescIdDesc",
+                () -> transactionRepository.findByAccountUserEmailOrderByTransactionDateDescIdDesc(
+                        USER, afterFirstPage, page));
+        queries.put("findByAccountUserEmailAndPendingTrueOrderByTransactionDateDescIdDesc",
+                () -> transactionRepository.findByAccountUserEmailAndPendingTrueOrderByTransactionDateDescIdDesc(
+                        USER, afterFirstPage, page));
+        queries.put("findByAccountUserEmailAndTransactionDateBetweenOrderByTransactionDateDescIdDesc",
+                () -> transactionRepository
+                        .findByAccountUserEmailAndTransactionDateBetweenOrderByTransactionDateDescIdDesc(
+                                USER, FROM, TO, afterFirstPage, page));
+        queries.put("findByAccountUserEmailAndTypeOrderByTransactionDateDescIdDesc",
+                () -> transactionRepository.findByAccountUserEmailAndTypeOrderByTransactionDateDescIdDesc(
+                        USER, TransactionType.INCOME, afterFirstPage, page));
+        queries.put("findByAccountUserEmailAndCategoryOrderByTransactionDateDescIdDesc",
+                () -> transactionRepository.findByAccountUserEmailAndCategoryOrderByTransactionDateDescIdDesc(
+                        USER, TransactionCategory.FOOD, afterFirstPage, page));
+        queries.put("sumExpensesByPeriodAndCategory",
+                () -> transactionRepository.sumExpensesByPeriodAndCategory(USER, "month", FROM));
+        queries.put("streamByUserEmail",
+                () -> transactionRepository.streamByUserEmail(USER).close());
+        queries.put("streamColumnRowsByUserEmail",
+                () -> transactionRepository.streamColumnRowsByUserEmail(USER).close());
+        queries.put("streamSketchRowsByUserEmail",
+                () -> transactionRepository.streamSketchRowsByUserEmail(USER, TransactionType.EXPENSE).close());
+        queries.put("MonthlyRollupRepository.findByUserEmailAndType",
+                () -> rollupRepository.findByUserEmailAndType(USER, TransactionType.EXPENSE));
+        return queries;
+    }
+
+    @Test
+    void hotQueriesDoNotSeqScan() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        hotQueries().forEach((name, query) -> {
+            RecordingInspector.STATEMENTS.clear();
+            // Streams only open their cursor inside a transaction
+            readOnly.executeWithoutResult(status -> query.run());
+            List<String> statements = List.copyOf(RecordingInspector.STATEMENTS);
+            assertFalse(statements.isEmpty(), name + " issued no SQL");
+
+            for (String sql : statements) {
+                String plan = String.join("\n",
+                        jdbc.queryForList("EXPLAIN (GENERIC_PLAN) " + numberBindMarkers(sql), String.class));
+                for (String table : HOT_TABLES) {
+                    assertTrue(!plan.contains("Seq Scan on " + table),
+                            name + " falls back to a sequential scan on " + table + ":\n" + sql + "\n" + plan);
+                }
+            }
+        });
+    }
+
+    private static KeysetScrollPosition keyset(LocalDateTime transactionDate, long id) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("transactionDate", transactionDate);
+        keys.put("id", id);
+        return ScrollPosition.forward(keys);
+    }
+
+    // Hibernate's JDBC markers become $1..$n so Postgres can plan the statement without values
+    private static String numberBindMarkers(String sql) {
+        Matcher matcher = BIND_MARKER.matcher(sql);
+        StringBuilder numbered = new StringBuilder();
+        int n = 0;
+        while (matcher.find()) {
+            matcher.appendReplacement(numbered, "\\$" + (++n));
+        }
+        matcher.appendTail(numbered);
+        return numbered.toString();
+    }
+}
@@ -0,0 +1,133 @@
+package project.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import project.dto.TransactionDTO;
+import project.model.Account;
+import project.model.AccountType;
+import project.model.TransactionCategory;
+import project.model.TransactionType;
+import project.model.User;
+import project.repository.AccountRepository;
+import project.repository.UserRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 64 writers hammering one account through createTransaction. The final balance must account
+// for every successful write exactly once, and the account must never go negative.
+// Run with: mvn test -Dtest=AccountBalanceConcurrencyBenchmark -Dbenchmark=true
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class AccountBalanceConcurrencyBenchmark {
+    private static final int WRITERS = 64;
+    private static final int WRITES_PER_WRITER = 200;
+    // Enough for roughly half the expenses, so the insufficient-funds path is exercised too
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("5000.00");
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setEmail("balance-bench-" + UUID.randomUUID() + "@example.com");
+        user.setPassword("bench");
+        user = userRepository.save(user);
+
+        account = new Account();
+        account.setUser(user);
+        account.setAccountName("Shared");
+        account.setAccountType(AccountType.CHECKING);
+        account.setBalance(OPENING_BALANCE);
+        account.setCreatedAt(LocalDateTime.now());
+        account = accountRepository.save(account);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM transactions WHERE account_id = ?", account.getId());
+        jdbcTemplate.update("DELETE FROM monthly_rollups WHERE account_id = ?", account.getId());
+        accountRepository.deleteById(account.getId());
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void concurrentWritersKeepBalanceConsistent() throws InterruptedException {
+        AtomicInteger incomes = new AtomicInteger();
+        AtomicInteger expenses = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        for (int w = 0; w < WRITERS; w++) {
+            final int writer = w;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < WRITES_PER_WRITER; i++) {
+                    // One in four writes is income, the rest are expenses
+                    boolean income = (writer + i) % 4 == 0;
+                    try {
+                        transactionService.createTransaction(user.getEmail(), dto(income));
+                        (income ? incomes : expenses).incrementAndGet();
+                    } catch (RuntimeException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.MINUTES));
+        double seconds = (System.nanoTime() - began) / 1_000_000_000.0;
+
+        BigDecimal expected = OPENING_BALANCE
+                .add(AMOUNT.multiply(BigDecimal.valueOf(incomes.get())))
+                .subtract(AMOUNT.multiply(BigDecimal.valueOf(expenses.get())));
+        BigDecimal actual = accountRepository.findById(account.getId()).orElseThrow().getBalance();
+
+        System.out.printf("%d writers: %d income, %d expense, %d rejected in %.2fs (%.0f writes/s)%n",
+                WRITERS, incomes.get(), expenses.get(), rejected.get(), seconds,
+                (incomes.get() + expenses.get()) / seconds);
+
+        assertEquals(0, expected.compareTo(actual), "expected " + expected + " but was " + actual);
+        assertTrue(actual.signum() >= 0);
+    }
+
+    private TransactionDTO dto(boolean income) {
+        TransactionDTO dto = new TransactionDTO();
+        dto.setAccountId(account.getId());
+        dto.setAmount(AMOUNT);
+        dto.setType(income ? TransactionType.INCOME : TransactionType.EXPENSE);
+        dto.setCategory(income ? TransactionCategory.OTHER_INCOME : TransactionCategory.FOOD);
+        dto.setTransactionDate(LocalDateTime.now());
+        return dto;
+    }
+}
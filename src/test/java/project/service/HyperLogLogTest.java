@@ -0,0 +1,63 @@
+package project.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HyperLogLogTest {
+
+    private static HyperLogLog withDistinct(int precision, int distinct) {
+        HyperLogLog hll = new HyperLogLog(precision);
+        for (int i = 0; i < distinct; i++) {
+            hll.add("merchant-" + i);
+        }
+        return hll;
+    }
+
+    // Precision 12 has a 1.6% standard error, so 3% is about two standard errors
+    @Test
+    void estimatesTenThousandDistinctWithinThreePercent() {
+        assertEquals(10_000, withDistinct(12, 10_000).estimate(), 300);
+    }
+
+    @Test
+    void estimatesLargeCardinalitiesWithinThreePercent() {
+        assertEquals(100_000, withDistinct(12, 100_000).estimate(), 3_000);
+    }
+
+    // Few distinct values are counted with linear counting, which is close to exact
+    @Test
+    void smallCardinalitiesAreNearlyExact() {
+        assertEquals(100, withDistinct(12, 100).estimate(), 2);
+    }
+
+    @Test
+    void repeatedValuesDoNotChangeTheEstimate() {
+        HyperLogLog once = withDistinct(12, 5_000);
+        HyperLogLog repeated = new HyperLogLog(12);
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 5_000; i++) {
+                repeated.add("merchant-" + i);
+            }
+        }
+
+        assertEquals(once.estimate(), repeated.estimate());
+    }
+
+    @Test
+    void emptySketchEstimatesZero() {
+        assertEquals(0, new HyperLogLog(12).estimate());
+    }
+
+    @Test
+    void sizeIsOneBytePerRegister() {
+        assertEquals(4096, new HyperLogLog(12).byteSize());
+    }
+
+    @Test
+    void rejectsPrecisionOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(3));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(17));
+    }
+}
@@ -0,0 +1,92 @@
+package project.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpaceSavingTopKTest {
+    private static final int CAPACITY = 10;
+
+    // Three heavy merchants hidden in a long tail of 2,000 one-off merchants, in random order
+    private static Map<String, Double> skewedStream(SpaceSavingTopK<String> sketch) {
+        Map<String, Double> truth = new HashMap<>();
+        Random random = new Random(42);
+        List<String> heavy = List.of("Rent", "Grocer", "Airline");
+        for (int i = 0; i < 2_000; i++) {
+            add(sketch, truth, "tail-" + i, 1 + random.nextInt(5));
+            if (i % 4 == 0) {
+                add(sketch, truth, heavy.get(random.nextInt(heavy.size())), 20);
+            }
+        }
+        return truth;
+    }
+
+    private static void add(SpaceSavingTopK<String> sketch, Map<String, Double> truth, String key, double weight) {
+        sketch.add(key, weight);
+        truth.merge(key, weight, Double::sum);
+    }
+
+    @Test
+    void keysHeavierThanTotalOverCapacityAreAlwaysTracked() {
+        SpaceSavingTopK<String> sketch = new SpaceSavingTopK<>(CAPACITY);
+        Map<String, Double> truth = skewedStream(sketch);
+        double total = truth.values().stream().mapToDouble(Double::doubleValue).sum();
+
+        Set<String> tracked = sketch.top(CAPACITY).stream()
+                .map(SpaceSavingTopK.Counter::key)
+                .collect(Collectors.toSet());
+        truth.forEach((key, weight) -> {
+            if (weight > total / CAPACITY) {
+                assertTrue(tracked.contains(key), key + " weighs " + weight + " of " + total + " but was evicted");
+            }
+        });
+        assertEquals(Set.of("Rent", "Grocer", "Airline"), sketch.top(3).stream()
+                .map(SpaceSavingTopK.Counter::key)
+                .collect(Collectors.toSet()));
+    }
+
+    // weight() never underestimates, and weight() - error() never overestimates
+    @Test
+    void reportedErrorBracketsTheTrueWeight() {
+        SpaceSavingTopK<String> sketch = new SpaceSavingTopK<>(CAPACITY);
+        Map<String, Double> truth = skewedStream(sketch);
+        double total = truth.values().stream().mapToDouble(Double::doubleValue).sum();
+
+        for (SpaceSavingTopK.Counter<String> counter : sketch.top(CAPACITY)) {
+            double actual = truth.get(counter.key());
+            assertTrue(counter.weight() >= actual, counter.key() + " underestimated");
+            assertTrue(counter.weight() - counter.error() <= actual, counter.key() + " lower bound too high");
+            assertTrue(counter.error() <= total / CAPACITY, counter.key() + " error above total/capacity");
+        }
+    }
+
+    @Test
+    void countsAreExactWhileUnderCapacity() {
+        SpaceSavingTopK<String> sketch = new SpaceSavingTopK<>(CAPACITY);
+        sketch.add("Cafe", 4);
+        sketch.add("Landlord", 900);
+        sketch.add("Cafe", 6);
+
+        List<SpaceSavingTopK.Counter<String>> top = sketch.top(5);
+        assertEquals(2, top.size());
+        assertEquals("Landlord", top.get(0).key());
+        assertEquals(10, top.get(1).weight());
+        assertEquals(0, top.get(1).error());
+    }
+
+    @Test
+    void neverTracksMoreThanCapacity() {
+        SpaceSavingTopK<String> sketch = new SpaceSavingTopK<>(CAPACITY);
+        skewedStream(sketch);
+
+        assertEquals(CAPACITY, sketch.size());
+    }
+}
@@ -0,0 +1,88 @@
+package project.service;
+
+import org.junit.jupiter.api.Test;
+import project.model.TransactionCategory;
+import project.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransactionColumnsTest {
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 10);
+
+    private static Object[] row(LocalDate date, String amount, TransactionType type,
+                                TransactionCategory category, String merchant) {
+        return new Object[]{date.atTime(12, 0), new BigDecimal(amount), type, category, merchant};
+    }
+
+    private static TransactionColumns columns() {
+        return TransactionColumns.of(Stream.of(
+                row(DAY.minusDays(1), "1.00", TransactionType.EXPENSE, TransactionCategory.FOOD, "Cafe"),
+                row(DAY, "10.00", TransactionType.EXPENSE, TransactionCategory.FOOD, "Cafe"),
+                row(DAY, "20.00", TransactionType.INCOME, null, null),
+                row(DAY.plusDays(1), "5.005", TransactionType.EXPENSE, null, null),
+                row(DAY.plusDays(1), "7.00", TransactionType.TRANSFER, null, "Bank"),
+                row(DAY.plusDays(2), "100.00", TransactionType.EXPENSE, TransactionCategory.HOUSING, "Landlord")));
+    }
+
+    @Test
+    void rangeIncludesTheStartDayAndExcludesTheEndDay() {
+        TransactionTotals totals = columns().aggregate(DAY.toEpochDay(), DAY.plusDays(2).toEpochDay(), false);
+
+        assertEquals(new BigDecimal("20.00"), totals.income());
+        // 5.005 rounds half up to 5.01
+        assertEquals(new BigDecimal("15.01"), totals.expenses());
+    }
+
+    @Test
+    void rangesOutsideTheHistoryAreEmpty() {
+        TransactionColumns columns = columns();
+
+        assertEquals(BigDecimal.valueOf(0, 2),
+                columns.aggregate(DAY.minusDays(30).toEpochDay(), DAY.minusDays(1).toEpochDay(), true).expenses());
+        assertEquals(BigDecimal.valueOf(0, 2),
+                columns.aggregate(DAY.plusDays(3).toEpochDay(), DAY.plusDays(30).toEpochDay(), true).expenses());
+        assertEquals(BigDecimal.valueOf(0, 2),
+                columns.aggregate(DAY.toEpochDay(), DAY.toEpochDay(), true).income());
+        assertEquals(new BigDecimal("116.01"),
+                columns.aggregate(Long.MIN_VALUE, Long.MAX_VALUE, false).expenses());
+    }
+
+    @Test
+    void uncategorizedExpensesCountInTotalsButNotInCategories() {
+        TransactionTotals totals = columns().aggregate(DAY.toEpochDay(), DAY.plusDays(2).toEpochDay(), true);
+
+        assertEquals(Map.of(TransactionCategory.FOOD, new BigDecimal("10.00")), totals.expenseCategories());
+    }
+
+    @Test
+    void merchantsAreOnlyCollectedForExpensesWhenAsked() {
+        TransactionColumns columns = columns();
+        TransactionTotals all = columns.aggregate(Long.MIN_VALUE, Long.MAX_VALUE, true);
+
+        // The transfer's merchant and the null merchants are left out
+        assertEquals(Map.of("Cafe", new BigDecimal("11.00"), "Landlord", new BigDecimal("100.00")),
+                all.expenseMerchants());
+        assertTrue(columns.aggregate(Long.MIN_VALUE, Long.MAX_VALUE, false).expenseMerchants().isEmpty());
+    }
+
+    @Test
+    void columnsGrowPastTheirInitialCapacity() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            rows.add(row(DAY.plusDays(i), "1.00", TransactionType.EXPENSE, TransactionCategory.FOOD, "M" + (i % 10)));
+        }
+        TransactionColumns columns = TransactionColumns.of(rows.stream());
+
+        assertEquals(1000, columns.size());
+        assertEquals(new BigDecimal("100.00"),
+                columns.aggregate(DAY.plusDays(100).toEpochDay(), DAY.plusDays(200).toEpochDay(), false).expenses());
+    }
+}